@@ -0,0 +1,14 @@
+package dev.alephpt.Dis;
+
+// a variable an operation reads from outside itself: frames out from where the operation is declared and its slot
+// there, and whether the two share it through a Cell because it changes after the operation is made
+class Capture {
+  final int depth;
+  int slot; // -1 for a parent variable the parent scope never declares
+  boolean shared;
+
+  Capture(int depth, int slot) {
+    this.depth = depth;
+    this.slot = slot;
+  }
+}
@@ -0,0 +1,8 @@
+package dev.alephpt.Dis;
+
+// a captured variable that is assigned after capture, held by its own frame and every closure over it
+final class Cell {
+  Object value;
+
+  Cell(Object value) { this.value = value; }
+}
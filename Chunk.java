@@ -0,0 +1,57 @@
+package dev.alephpt.Dis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class Chunk {
+  final Statement.Operation declaration;
+  int[] code = new int[32];
+  Token[] tokens = new Token[32];
+  Object[] pool;
+  int count = 0;
+  int slots = -1; // the VM stack slots a call keeps its locals in, or -1 when they live in Fields
+  private final List<Object> constants = new ArrayList<>();
+
+  Chunk(Statement.Operation declaration) {
+    this.declaration = declaration;
+  }
+
+  int write(int word, Token token) {
+    if (count == code.length) {
+      code = Arrays.copyOf(code, count * 2);
+      tokens = Arrays.copyOf(tokens, count * 2);
+    }
+
+    code[count] = word;
+    tokens[count] = token;
+    return count++;
+  }
+
+  void patch(int offset, int word) {
+    code[offset] = word;
+  }
+
+  int constant(Object value) {
+    for (int i = 0; i < constants.size(); i++) {
+      if (constants.get(i) == value) { return i; }
+    }
+
+    constants.add(value);
+    return constants.size() - 1;
+  }
+
+  // trims the buffers once compiling is done and freezes the constant pool for the VM
+  Chunk seal() {
+    code = Arrays.copyOf(code, count);
+    tokens = Arrays.copyOf(tokens, count);
+    pool = constants.toArray();
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    if (declaration == null) { return "<script>"; }
+    return "<chunk " + declaration.name.lexeme + ">";
+  }
+}
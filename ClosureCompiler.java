@@ -0,0 +1,939 @@
+package dev.alephpt.Dis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ClosureCompiler implements Express.Visitor<ClosureCompiler.Eval>, Statement.Visitor<ClosureCompiler.Exec> {
+  private final Interpreter interpreter;
+  private final Field globals;
+  private final boolean nested; // compiles the bodies of the operations and methods it meets, too
+
+  interface Eval {
+    Object eval(Field fields);
+  }
+
+  // statements hand back a Return once one is executed, null when they complete normally
+  interface Exec {
+    Return exec(Field fields);
+  }
+
+  ClosureCompiler(Interpreter interpreter) { this(interpreter, true); }
+
+  ClosureCompiler(Interpreter interpreter, boolean nested) {
+    this.interpreter = interpreter;
+    this.globals = interpreter.globals;
+    this.nested = nested;
+  }
+
+  Exec compile(List<Statement> statements) {
+    Exec[] body = compileAll(statements);
+    return fields -> {
+      for (Exec statement : body) {
+        Return returned = statement.exec(fields);
+        if (returned != null) { return returned; }
+      }
+      return null;
+    };
+  }
+
+
+  ////////////////
+  // STATEMENTS //
+  ////////////////
+
+  @Override
+  public Exec visitExpressionStatement(Statement.Expression statement) {
+    return effect(statement.expression);
+  }
+
+  @Override
+  public Exec visitOperationStatement(Statement.Operation statement) {
+    if (nested) { statement.compiled = compile(statement.body); }
+    int slot = statement.slot;
+    Token name = statement.name;
+
+    return fields -> {
+      DisOp operation = new DisOp(statement, DisOp.closure(statement, fields, globals), false);
+      declare(fields, slot, name, operation);
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitWhenStatement(Statement.When statement) {
+    Eval condition = compile(statement.condition);
+    Exec thenBranch = compile(statement.thenBranch);
+    Eval[] orConditions = new Eval[statement.orBranches.size()];
+    Exec[] orBranches = new Exec[statement.orBranches.size()];
+    for (int i = 0; i < orBranches.length; i++) {
+      orConditions[i] = compile(statement.orBranches.get(i).condition);
+      orBranches[i] = compile(statement.orBranches.get(i).orBranch);
+    }
+    Exec elseBranch = statement.elseBranch == null ? null : compile(statement.elseBranch);
+
+    return fields -> {
+      if (Interpreter.isTruthful(condition.eval(fields))) {
+        return thenBranch.exec(fields);
+      }
+
+      Exec met = null;
+      for (int i = 0; i < orConditions.length; i++) {
+        if (Interpreter.isTruthful(orConditions[i].eval(fields)) && met == null) {
+          met = orBranches[i];
+          Return returned = met.exec(fields);
+          if (returned != null) { return returned; }
+        }
+      }
+
+      if (elseBranch != null && met == null) { return elseBranch.exec(fields); }
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitOrStatement(Statement.Or statement) {
+    Eval condition = compile(statement.condition);
+    Exec orBranch = compile(statement.orBranch);
+    return fields -> {
+      if (Interpreter.isTruthful(condition.eval(fields))) { return orBranch.exec(fields); }
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitWhileStatement(Statement.While statement) {
+    Eval condition = compile(statement.condition);
+    Exec body = compile(statement.body);
+    return fields -> {
+      while (Interpreter.isTruthful(condition.eval(fields))) {
+        Return returned = body.exec(fields);
+        if (returned != null) { return returned; }
+      }
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitAsStatement(Statement.As statement) {
+    Exec initializer = statement.initializer == null ? null : compile(statement.initializer);
+    Eval condition = compile(statement.condition);
+    Exec body = compile(statement.body);
+    Exec step = statement.increment == null ? null : effect(statement.increment);
+    int size = statement.size;
+
+    return fields -> {
+      Field loop = new Field(fields, size);
+      if (initializer != null) { initializer.exec(loop); }
+
+      while (Interpreter.isTruthful(condition.eval(loop))) {
+        Return returned = body.exec(loop);
+        if (returned != null) { return returned; }
+        if (step != null) { step.exec(loop); }
+      }
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitPrintStatement(Statement.Print statement) {
+    Eval expression = compile(statement.expression);
+    return fields -> {
+      System.out.println(Interpreter.asString(expression.eval(fields)));
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitReturnStatement(Statement.Return statement) {
+    if (statement.value == null) {
+      return fields -> new Return(null);
+    }
+
+    Eval value = compile(statement.value);
+    if (statement.tail == null) {
+      return fields -> new Return(value.eval(fields));
+    }
+
+    Express.Calling call = (Express.Calling)statement.value;
+    Statement.Operation self = statement.tail;
+    Eval called = compile(call.called);
+    Eval[] args = new Eval[call.args.size()];
+    for (int i = 0; i < args.length; i++) { args[i] = compile(call.args.get(i)); }
+
+    return fields -> {
+      Object callee = called.eval(fields);
+      if (!(callee instanceof DisOp) || ((DisOp)callee).declaration != self) {
+        return new Return(value.eval(fields));
+      }
+
+      Object[] values = new Object[args.length];
+      for (int i = 0; i < values.length; i++) { values[i] = args[i].eval(fields); }
+      return new TailCall((DisOp)callee, values);
+    };
+  }
+
+  @Override
+  public Exec visitBodyStatement(Statement.Body statement) {
+    Exec[] body = compileAll(statement.statements);
+    int size = statement.size;
+    if (!statement.scoped) {
+      return fields -> {
+        for (Exec inner : body) {
+          Return returned = inner.exec(fields);
+          if (returned != null) { return returned; }
+        }
+        return null;
+      };
+    }
+
+    return fields -> {
+      Field block = new Field(fields, size);
+      for (Exec inner : body) {
+        Return returned = inner.exec(block);
+        if (returned != null) { return returned; }
+      }
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitObjStatement(Statement.Obj object) {
+    List<Statement.Operation> declarations = new ArrayList<>();
+    for (Statement statement : object.body) {
+      if (!(statement instanceof Statement.Operation)) { continue; }
+
+      Statement.Operation method = (Statement.Operation)statement;
+      if (nested) { method.compiled = compile(method.body); }
+      declarations.add(method);
+    }
+
+    return fields -> {
+      declare(fields, object.slot, object.name, null);
+
+      Map<String, DisOp> methods = new HashMap<>();
+      for (int i = 0; i < declarations.size(); i++) {
+        Statement.Operation method = declarations.get(i);
+        DisOp op = new DisOp(method, DisOp.closure(method, fields, globals), method.name.lexeme.equals("pilot"));
+        methods.put(method.name.lexeme, op);
+      }
+
+      declare(fields, object.slot, object.name, new DisObj(object.name.lexeme, methods, object.layout));
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitEnumStatement(Statement.Enum enumstmnt) {
+    String[] elements = DisEnum.namesOf(enumstmnt.elements);
+    return fields -> {
+      declare(fields, enumstmnt.slot, enumstmnt.name, new DisEnum(enumstmnt.name.lexeme, elements));
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitFormStatement(Statement.Form form) {
+    Eval[] initials = new Eval[form.members.size()];
+    for (int i = 0; i < initials.length; i++) {
+      Express initial = form.members.get(i).initial;
+      initials[i] = initial == null ? fields -> null : compile(initial);
+    }
+
+    return fields -> {
+      declare(fields, form.slot, form.name, null);
+
+      Map<String, Object> members = new HashMap<>();
+      for (int i = 0; i < initials.length; i++) {
+        members.put(form.members.get(i).name.lexeme, initials[i].eval(fields));
+      }
+
+      declare(fields, form.slot, form.name, new DisForm(form.name.lexeme, members));
+      return null;
+    };
+  }
+
+  @Override
+  public Exec visitVariableStatement(Statement.Variable statement) {
+    Eval initial = statement.initial == null ? fields -> null : compile(statement.initial);
+    int slot = statement.slot;
+    Token name = statement.name;
+
+    if (slot < 0) {
+      return fields -> {
+        globals.define(name.lexeme, initial.eval(fields));
+        return null;
+      };
+    }
+    Exec boxed = fields -> {
+      fields.put(slot, initial.eval(fields));
+      return null;
+    };
+    return statement.initial == null ? boxed : store(0, slot, statement.initial, boxed);
+  }
+
+
+  /////////////////
+  // EXPRESSIONS //
+  /////////////////
+
+  @Override
+  public Eval visitAssignExpress(Express.Assign express) {
+    return assign(express.name, express.depth, express.slot, compile(express.value));
+  }
+
+  @Override
+  public Eval visitCountExpress(Express.Count express) {
+    Eval identifier = compile(express.identifier);
+    Token operator = express.operator;
+    return assign(express.name, express.depth, express.slot,
+                  fields -> Interpreter.count(operator, identifier.eval(fields)));
+  }
+
+  @Override
+  public Eval visitUnaryExpress(Express.Unary express) {
+    Eval right = compile(express.right);
+    Token operator = express.operator;
+
+    if (operator.type == TokenType.NOT) {
+      return fields -> !Interpreter.isTruthful(right.eval(fields));
+    }
+    return fields -> {
+      Object value = right.eval(fields);
+      if (value instanceof Integer) { return Numbers.negate((int)(Integer)value); }
+      return Interpreter.unary(operator, value);
+    };
+  }
+
+  @Override
+  public Eval visitBinaryExpress(Express.Binary express) {
+    Eval left = compile(express.left);
+    Eval right = compile(express.right);
+    Token operator = express.operator;
+
+    // comparisons of numbers never box their operands; integer fast paths are linked per operator,
+    // everything else shares Interpreter.binary
+    switch (operator.type) {
+      case LESSER:
+        return compare(express, fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return (Integer)l < (Integer)r; }
+          return Interpreter.binary(operator, l, r);
+        });
+      case LESS_EQ:
+        return compare(express, fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return (Integer)l <= (Integer)r; }
+          return Interpreter.binary(operator, l, r);
+        });
+      case GREATER:
+        return compare(express, fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return (Integer)l > (Integer)r; }
+          return Interpreter.binary(operator, l, r);
+        });
+      case GREAT_EQ:
+        return compare(express, fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return (Integer)l >= (Integer)r; }
+          return Interpreter.binary(operator, l, r);
+        });
+      case EQEQ:
+      case INEQ:
+        return compare(express, fields -> {
+          Object l = left.eval(fields);
+          return Interpreter.binary(operator, l, right.eval(fields));
+        });
+      case PLUS:
+        return fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return Numbers.add((int)(Integer)l, (int)(Integer)r); }
+          return Interpreter.binary(operator, l, r);
+        };
+      case MINUS:
+        return fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return Numbers.subtract((int)(Integer)l, (int)(Integer)r); }
+          return Interpreter.binary(operator, l, r);
+        };
+      case STAR:
+        return fields -> {
+          Object l = left.eval(fields), r = right.eval(fields);
+          if (l instanceof Integer && r instanceof Integer) { return Numbers.multiply((int)(Integer)l, (int)(Integer)r); }
+          return Interpreter.binary(operator, l, r);
+        };
+      default:
+        return fields -> {
+          Object l = left.eval(fields);
+          return Interpreter.binary(operator, l, right.eval(fields));
+        };
+    }
+  }
+
+  @Override
+  public Eval visitCallingExpress(Express.Calling express) {
+    Eval called = compile(express.called);
+    Eval[] args = new Eval[express.args.size()];
+    for (int i = 0; i < args.length; i++) { args[i] = compile(express.args.get(i)); }
+
+    switch (args.length) {
+      case 0: return fields -> {
+        Object callee = called.eval(fields);
+        DisCaller operation = Interpreter.callable(callee, 0);
+        if (operation == null) { throw Interpreter.callError(callee, new ArrayList<>()); }
+        return operation.call0(interpreter);
+      };
+      case 1: {
+        Eval first = args[0];
+        return fields -> {
+          Object callee = called.eval(fields);
+          Object a = first.eval(fields);
+          DisCaller operation = Interpreter.callable(callee, 1);
+          if (operation == null) { throw Interpreter.callError(callee, Arrays.asList(a)); }
+          return operation.call1(interpreter, a);
+        };
+      }
+      case 2: {
+        Eval first = args[0], second = args[1];
+        return fields -> {
+          Object callee = called.eval(fields);
+          Object a = first.eval(fields);
+          Object b = second.eval(fields);
+          DisCaller operation = Interpreter.callable(callee, 2);
+          if (operation == null) { throw Interpreter.callError(callee, Arrays.asList(a, b)); }
+          return operation.call2(interpreter, a, b);
+        };
+      }
+      case 3: {
+        Eval first = args[0], second = args[1], third = args[2];
+        return fields -> {
+          Object callee = called.eval(fields);
+          Object a = first.eval(fields);
+          Object b = second.eval(fields);
+          Object c = third.eval(fields);
+          DisCaller operation = Interpreter.callable(callee, 3);
+          if (operation == null) { throw Interpreter.callError(callee, Arrays.asList(a, b, c)); }
+          return operation.call3(interpreter, a, b, c);
+        };
+      }
+      default: return fields -> {
+        Object callee = called.eval(fields);
+        Object[] values = new Object[args.length];
+        for (int i = 0; i < values.length; i++) { values[i] = args[i].eval(fields); }
+        DisCaller operation = Interpreter.callable(callee, values.length);
+        if (operation == null) { throw Interpreter.callError(callee, Arrays.asList(values)); }
+        return operation.callN(interpreter, values);
+      };
+    }
+  }
+
+  @Override
+  public Eval visitInvokeExpress(Express.Invoke express) {
+    Eval object = compile(express.object);
+    Eval[] args = new Eval[express.args.size()];
+    for (int i = 0; i < args.length; i++) { args[i] = compile(express.args.get(i)); }
+    Token name = express.name;
+    PropCache cache = express.cache;
+
+    return fields -> {
+      Object receiver = object.eval(fields);
+      DisOp method = receiver instanceof DisInstance ? ((DisInstance)receiver).method(name, cache) : null;
+      if (method == null || method.arity() != args.length) {
+        Object callee = method != null ? method : Interpreter.getProps(receiver, name, cache);
+        return call(callee, args, fields);
+      }
+
+      Field frame = method.frame(receiver);
+      for (int i = 0; i < args.length; i++) { frame.slots[i] = args[i].eval(fields); }
+      return method.run(interpreter, frame);
+    };
+  }
+
+  // the general call, for callees that are not a method found on its receiver
+  private Object call(Object callee, Eval[] args, Field fields) {
+    Object[] values = new Object[args.length];
+    for (int i = 0; i < values.length; i++) { values[i] = args[i].eval(fields); }
+    DisCaller operation = Interpreter.callable(callee, values.length);
+    if (operation == null) { throw Interpreter.callError(callee, Arrays.asList(values)); }
+    return operation.callN(interpreter, values);
+  }
+
+  @Override
+  public Eval visitSelfExpress(Express.Self express) {
+    return variable(express.keyword, express.depth, express.slot);
+  }
+
+  @Override
+  public Eval visitGetPropsExpress(Express.GetProps express) {
+    Eval object = compile(express.object);
+    Token name = express.name;
+    PropCache cache = express.cache;
+    return fields -> Interpreter.getProps(object.eval(fields), name, cache);
+  }
+
+  @Override
+  public Eval visitSetPropsExpress(Express.SetProps express) {
+    Eval object = compile(express.object);
+    Eval value = compile(express.value);
+    Token name = express.name;
+    PropCache cache = express.cache;
+
+    return fields -> {
+      Object target = object.eval(fields);
+      Interpreter.checkProps(target, name);
+      Object result = value.eval(fields);
+      Interpreter.setProps(target, name, result, cache);
+      return result;
+    };
+  }
+
+  @Override
+  public Eval visitGroupingExpress(Express.Grouping express) {
+    return compile(express.expression);
+  }
+
+  @Override
+  public Eval visitLiteralExpress(Express.Literal express) {
+    Object value = express.value;
+    return fields -> value;
+  }
+
+  @Override
+  public Eval visitLogicalExpress(Express.Logical express) {
+    Eval left = compile(express.left);
+    Eval right = compile(express.right);
+
+    if (express.operator.type == TokenType.OR_OP) {
+      return fields -> {
+        Object value = left.eval(fields);
+        return Interpreter.isTruthful(value) ? value : right.eval(fields);
+      };
+    }
+    return fields -> {
+      Object value = left.eval(fields);
+      return !Interpreter.isTruthful(value) ? value : right.eval(fields);
+    };
+  }
+
+  @Override
+  public Eval visitVariableExpress(Express.Variable express) {
+    return variable(express.name, express.depth, express.slot);
+  }
+
+  @Override
+  public Eval visitParentVariableExpress(Express.ParentVariable express) {
+    Token name = express.name;
+    int depth = express.depth, slot = express.slot;
+    return fields -> fields.parentGet(name, depth, slot);
+  }
+
+  @Override
+  public Eval visitGlobalVariableExpress(Express.GlobalVariable express) {
+    Token name = express.name;
+    int slot = express.slot;
+    return fields -> globals.globalGet(name, slot);
+  }
+
+  @Override
+  public Eval visitParentAssignExpress(Express.ParentAssign express) {
+    Token name = express.target.name;
+    int depth = express.target.depth, slot = express.target.slot;
+    Eval value = compile(express.value);
+    return fields -> {
+      Object result = value.eval(fields);
+      fields.parentAssign(name, depth, slot, result);
+      return result;
+    };
+  }
+
+  @Override
+  public Eval visitGlobalAssignExpress(Express.GlobalAssign express) {
+    Token name = express.name;
+    int slot = express.slot;
+    Eval value = compile(express.value);
+    return fields -> {
+      Object result = value.eval(fields);
+      globals.globalAssign(name, slot, result);
+      return result;
+    };
+  }
+
+
+  /// HELPER FUNCTIONS //
+
+  private Eval compile(Express express) { return express.accept(this); }
+  private Exec compile(Statement statement) { return statement.accept(this); }
+
+  private Exec[] compileAll(List<Statement> statements) {
+    Exec[] compiled = new Exec[statements.size()];
+    for (int i = 0; i < compiled.length; i++) { compiled[i] = compile(statements.get(i)); }
+    return compiled;
+  }
+
+  // an expression run for its effect alone; a local it assigns or counts never needs the value boxed
+  private Exec effect(Express express) {
+    Eval expression = compile(express);
+    Exec boxed = fields -> {
+      expression.eval(fields);
+      return null;
+    };
+
+    if (express instanceof Express.Assign) {
+      Express.Assign assign = (Express.Assign)express;
+      if (assign.depth >= 0) { return store(assign.depth, assign.slot, assign.value, boxed); }
+    }
+    if (express instanceof Express.Count) {
+      Express.Count count = (Express.Count)express;
+      if (count.depth >= 0) { return count(count.depth, count.slot, count.operator, boxed); }
+    }
+    return boxed;
+  }
+
+  private Eval variable(Token name, int depth, int slot) {
+    switch (depth) {
+      case -1: return fields -> globals.get(name, slot);
+      case 0:  return fields -> fields.at(slot);
+      case 1:  return fields -> fields.foregone.at(slot);
+      default: return fields -> fields.getAt(depth, slot);
+    }
+  }
+
+  private Eval assign(Token name, int depth, int slot, Eval value) {
+    switch (depth) {
+      case -1:
+        return fields -> {
+          Object result = value.eval(fields);
+          globals.assign(name, slot, result);
+          return result;
+        };
+      case 0:
+        return fields -> {
+          Object result = value.eval(fields);
+          fields.put(slot, result);
+          return result;
+        };
+      default:
+        return fields -> {
+          Object result = value.eval(fields);
+          fields.assignAt(depth, slot, result);
+          return result;
+        };
+    }
+  }
+
+  private void declare(Field fields, int slot, Token name, Object value) {
+    if (slot < 0) {
+      globals.define(name.lexeme, value);
+    } else {
+      fields.put(slot, value);
+    }
+  }
+
+
+  /// UNBOXED ARITHMETIC //
+
+  // numbers computed from literals and variables stay primitive: locals take them into tagged slots,
+  // comparisons consume them, and only values that leave for the rest of the language are boxed
+  interface IntEval {
+    int eval(Field fields);
+  }
+
+  interface DoubleEval {
+    double eval(Field fields);
+  }
+
+  interface Test {
+    boolean test(Field fields);
+  }
+
+  // thrown when a value on an unboxed path is not the type it was compiled for; an int path that overflows
+  // throws ArithmeticException instead and is handled the same way, leaving the boxed path to promote
+  private static final class Miss extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    static final Miss MISS = new Miss();
+
+    private Miss() { super(null, null, false, false); }
+  }
+
+  private static final int INTS = 0, DOUBLES = 1, BOXED = 2;
+
+  // the path a site still tries; a miss moves it down for good, so a site pays for at most two
+  private static final class Site {
+    int tier;
+
+    Site(int tier) { this.tier = tier; }
+  }
+
+  private Exec store(int depth, int slot, Express value, Exec boxed) {
+    IntEval ints = ints(value);
+    DoubleEval doubles = doubles(value);
+    if (ints == null && doubles == null) { return boxed; }
+
+    if (ints != null && exact(value, Type.INT)) {
+      return fields -> {
+        (depth == 0 ? fields : fields.ancestor(depth)).setInt(slot, ints.eval(fields));
+        return null;
+      };
+    }
+    if (doubles != null && exact(value, Type.DOUBLE)) {
+      return fields -> {
+        (depth == 0 ? fields : fields.ancestor(depth)).setDouble(slot, doubles.eval(fields));
+        return null;
+      };
+    }
+
+    Site site = new Site(ints != null ? INTS : DOUBLES);
+    return fields -> {
+      Field target = depth == 0 ? fields : fields.ancestor(depth);
+      if (site.tier == INTS) {
+        try {
+          target.setInt(slot, ints.eval(fields));
+          return null;
+        } catch (Miss | ArithmeticException overflow) {
+          site.tier = doubles != null ? DOUBLES : BOXED;
+        }
+      }
+      if (site.tier == DOUBLES) {
+        try {
+          target.setDouble(slot, doubles.eval(fields));
+          return null;
+        } catch (Miss miss) {
+          site.tier = BOXED;
+        }
+      }
+      return boxed.exec(fields);
+    };
+  }
+
+  private Exec count(int depth, int slot, Token operator, Exec boxed) {
+    int step = operator.type == TokenType.PLUSPLUS ? 1 : -1;
+    return fields -> {
+      Field target = depth == 0 ? fields : fields.ancestor(depth);
+      if (target.count(slot, step)) { return null; }
+
+      Object value = target.slots[slot];
+      if (value == Field.DOUBLE) {
+        target.raw[slot] = Double.doubleToRawLongBits(Double.longBitsToDouble(target.raw[slot]) + step);
+      } else if (value instanceof Double) {
+        target.setDouble(slot, (Double)value + step);
+      } else {
+        return boxed.exec(fields);
+      }
+      return null;
+    };
+  }
+
+  private Eval compare(Express.Binary express, Eval boxed) {
+    TokenType operator = express.operator.type;
+    IntEval intLeft = ints(express.left), intRight = ints(express.right);
+    Test ints = intLeft == null || intRight == null ? null : intTest(operator, intLeft, intRight);
+
+    // doubles compare by value, where the boxed path would use Double.equals
+    DoubleEval doubleLeft = operand(express.left, express.right), doubleRight = operand(express.right, express.left);
+    Test doubles = doubleLeft == null || doubleRight == null ? null : doubleTest(operator, doubleLeft, doubleRight);
+    if (ints == null && doubles == null) { return boxed; }
+
+    if (ints != null && exact(express.left, Type.INT) && exact(express.right, Type.INT)) { return ints::test; }
+    if (doubles != null && widens(express.left, express.right) && widens(express.right, express.left)) {
+      return doubles::test;
+    }
+
+    Site site = new Site(ints != null ? INTS : DOUBLES);
+    return fields -> {
+      if (site.tier == INTS) {
+        try {
+          return ints.test(fields);
+        } catch (Miss | ArithmeticException overflow) {
+          site.tier = doubles != null ? DOUBLES : BOXED;
+        }
+      }
+      if (site.tier == DOUBLES) {
+        try {
+          return doubles.test(fields);
+        } catch (Miss miss) {
+          site.tier = BOXED;
+        }
+      }
+      return boxed.eval(fields);
+    };
+  }
+
+  private static Test intTest(TokenType operator, IntEval left, IntEval right) {
+    switch (operator) {
+      case LESSER:   return fields -> left.eval(fields) < right.eval(fields);
+      case LESS_EQ:  return fields -> left.eval(fields) <= right.eval(fields);
+      case GREATER:  return fields -> left.eval(fields) > right.eval(fields);
+      case GREAT_EQ: return fields -> left.eval(fields) >= right.eval(fields);
+      case EQEQ:     return fields -> left.eval(fields) == right.eval(fields);
+      case INEQ:     return fields -> left.eval(fields) != right.eval(fields);
+      default:       return null;
+    }
+  }
+
+  private static Test doubleTest(TokenType operator, DoubleEval left, DoubleEval right) {
+    switch (operator) {
+      case LESSER:   return fields -> left.eval(fields) < right.eval(fields);
+      case LESS_EQ:  return fields -> left.eval(fields) <= right.eval(fields);
+      case GREATER:  return fields -> left.eval(fields) > right.eval(fields);
+      case GREAT_EQ: return fields -> left.eval(fields) >= right.eval(fields);
+      default:       return null;
+    }
+  }
+
+  // an int-valued expression, or null when it is not built from int literals, variables and arithmetic
+  private IntEval ints(Express express) {
+    if (express instanceof Express.Grouping) { return ints(((Express.Grouping)express).expression); }
+
+    if (express instanceof Express.Literal) {
+      Object value = ((Express.Literal)express).value;
+      if (!(value instanceof Integer)) { return null; }
+      int constant = (Integer)value;
+      return fields -> constant;
+    }
+
+    if (express instanceof Express.Variable) {
+      Express.Variable variable = (Express.Variable)express;
+      if (variable.type != Type.INT && variable.type != Type.NUMBER && variable.type != Type.ANY) { return null; }
+
+      Token name = variable.name;
+      int depth = variable.depth, slot = variable.slot;
+      switch (depth) {
+        case -1: return fields -> intOf(globals.get(name, slot));
+        case 0:  return fields -> intAt(fields, slot);
+        case 1:  return fields -> intAt(fields.foregone, slot);
+        default: return fields -> intAt(fields.ancestor(depth), slot);
+      }
+    }
+
+    if (express instanceof Express.Unary) {
+      Express.Unary unary = (Express.Unary)express;
+      IntEval right = unary.operator.type == TokenType.MINUS ? ints(unary.right) : null;
+      return right == null ? null : fields -> Math.negateExact(right.eval(fields));
+    }
+
+    if (express instanceof Express.Binary) {
+      Express.Binary binary = (Express.Binary)express;
+      IntEval left = ints(binary.left), right = ints(binary.right);
+      if (left == null || right == null) { return null; }
+
+      switch (binary.operator.type) {
+        case PLUS:  return fields -> Math.addExact(left.eval(fields), right.eval(fields));
+        case MINUS: return fields -> Math.subtractExact(left.eval(fields), right.eval(fields));
+        case STAR:  return fields -> Math.multiplyExact(left.eval(fields), right.eval(fields));
+        case WHACK: return fields -> divide(left.eval(fields), right.eval(fields));
+      }
+    }
+    return null;
+  }
+
+  // a double-valued expression; every operator in it has a double operand, as Interpreter.binary requires
+  // before it leaves integer arithmetic
+  private DoubleEval doubles(Express express) {
+    if (express instanceof Express.Grouping) { return doubles(((Express.Grouping)express).expression); }
+
+    if (express instanceof Express.Literal) {
+      Object value = ((Express.Literal)express).value;
+      if (!(value instanceof Double)) { return null; }
+      double constant = (Double)value;
+      return fields -> constant;
+    }
+
+    if (express instanceof Express.Variable) {
+      Express.Variable variable = (Express.Variable)express;
+      if (variable.type != Type.DOUBLE && variable.type != Type.NUMBER && variable.type != Type.ANY) { return null; }
+
+      Token name = variable.name;
+      int depth = variable.depth, slot = variable.slot;
+      switch (depth) {
+        case -1: return fields -> doubleOf(globals.get(name, slot));
+        case 0:  return fields -> doubleAt(fields, slot);
+        case 1:  return fields -> doubleAt(fields.foregone, slot);
+        default: return fields -> doubleAt(fields.ancestor(depth), slot);
+      }
+    }
+
+    if (express instanceof Express.Unary) {
+      Express.Unary unary = (Express.Unary)express;
+      DoubleEval right = unary.operator.type == TokenType.MINUS ? doubles(unary.right) : null;
+      return right == null ? null : fields -> -right.eval(fields);
+    }
+
+    if (express instanceof Express.Binary) {
+      Express.Binary binary = (Express.Binary)express;
+      DoubleEval left = operand(binary.left, binary.right), right = operand(binary.right, binary.left);
+      if (left == null || right == null) { return null; }
+
+      switch (binary.operator.type) {
+        case PLUS:  return fields -> left.eval(fields) + right.eval(fields);
+        case MINUS: return fields -> left.eval(fields) - right.eval(fields);
+        case STAR:  return fields -> left.eval(fields) * right.eval(fields);
+        case WHACK: return fields -> left.eval(fields) / right.eval(fields);
+        case POWER: return fields -> Math.pow(left.eval(fields), right.eval(fields));
+      }
+    }
+    return null;
+  }
+
+  // one side of a double operator; an int literal is widened only when the other side is not a literal
+  private DoubleEval operand(Express express, Express other) {
+    DoubleEval value = doubles(express);
+    if (value != null || !(express instanceof Express.Literal) || other instanceof Express.Literal) { return value; }
+
+    Object literal = ((Express.Literal)express).value;
+    if (!(literal instanceof Integer)) { return null; }
+    double constant = (Integer)literal;
+    return fields -> constant;
+  }
+
+  private static int divide(int left, int right) {
+    return right == -1 ? Math.negateExact(left) : left / right;
+  }
+
+  private static int intAt(Field field, int slot) {
+    Object value = field.slots[slot];
+    if (value == Field.INT) { return (int)field.raw[slot]; }
+    return intOf(value);
+  }
+
+  private static double doubleAt(Field field, int slot) {
+    Object value = field.slots[slot];
+    if (value == Field.DOUBLE) { return Double.longBitsToDouble(field.raw[slot]); }
+    return doubleOf(value);
+  }
+
+  private static int intOf(Object value) {
+    if (value instanceof Integer) { return (Integer)value; }
+    if (value instanceof Cell) { return intOf(((Cell)value).value); }
+    throw Miss.MISS;
+  }
+
+  private static double doubleOf(Object value) {
+    if (value instanceof Double) { return (Double)value; }
+    if (value instanceof Cell) { return doubleOf(((Cell)value).value); }
+    throw Miss.MISS;
+  }
+
+  // proved by the Inference pass down to every leaf the typed paths read, so that they cannot miss;
+  // int arithmetic is never proved, as it can overflow
+  private static boolean exact(Express express, Type type) {
+    if (express instanceof Express.Grouping) { return exact(((Express.Grouping)express).expression, type); }
+    if (express instanceof Express.Literal || express instanceof Express.Variable) { return express.type == type; }
+    if (type != Type.DOUBLE || express.type != type) { return false; }
+
+    if (express instanceof Express.Unary) { return exact(((Express.Unary)express).right, type); }
+    if (express instanceof Express.Binary) {
+      Express.Binary binary = (Express.Binary)express;
+      return widens(binary.left, binary.right) && widens(binary.right, binary.left);
+    }
+    return false;
+  }
+
+  // one side of a double operator, as operand() compiles it
+  private static boolean widens(Express express, Express other) {
+    if (exact(express, Type.DOUBLE)) { return true; }
+    return express instanceof Express.Literal && ((Express.Literal)express).value instanceof Integer
+        && !(other instanceof Express.Literal);
+  }
+}
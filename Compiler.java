@@ -0,0 +1,641 @@
+package dev.alephpt.Dis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.alephpt.Dis.OpCode.*;
+
+class Compiler implements Express.Visitor<Void>, Statement.Visitor<Void> {
+  private Chunk chunk;
+  private List<Integer> frame; // where each scope open in a chunk keeping its locals on the VM stack ends, innermost last
+  private boolean unframed; // that chunk met something needing its locals in Fields, and is compiled again
+
+  // the script's own names are globals, but the block scopes it opens keep their locals on the VM stack as an
+  // operation's do, unless something in one of them holds on to a Field
+  Chunk compile(List<Statement> statements) {
+    Chunk compiled = compile(statements, new ArrayList<>());
+    return compiled != null ? compiled : compile(statements, null);
+  }
+
+  private Chunk compile(List<Statement> statements, List<Integer> frame) {
+    chunk = new Chunk(null);
+    this.frame = frame;
+    unframed = false;
+
+    compileBody(statements);
+    emit(NONE, null);
+    emit(RETURN, null, STACKED);
+    return unframed ? null : chunk.seal();
+  }
+
+
+  ////////////////
+  // STATEMENTS //
+  ////////////////
+
+  @Override
+  public Void visitExpressionStatement(Statement.Expression statement) {
+    effect(statement.expression);
+    return null;
+  }
+
+  @Override
+  public Void visitOperationStatement(Statement.Operation statement) {
+    if (framing()) { return unframed(); }
+
+    emit(OPERATION, statement.name, chunk.constant(operation(statement, false)));
+    return null;
+  }
+
+  @Override
+  public Void visitWhenStatement(Statement.When statement) {
+    List<Integer> skipThen = condition(statement.condition);
+    compile(statement.thenBranch);
+    int[] exits = new int[statement.orBranches.size() + 1];
+    // a lone then branch runs on into what follows without a jump past the rest
+    exits[0] = statement.orBranches.isEmpty() && statement.elseBranch == null ? -1 : emitJump(JUMP, null);
+    patchJumps(skipThen);
+
+    // once an 'or' is met the remaining conditions are still evaluated, without running their branches
+    for (int i = 0; i < statement.orBranches.size(); i++) {
+      Statement.Or or = statement.orBranches.get(i);
+      List<Integer> skipOr = condition(or.condition);
+      compile(or.orBranch);
+      for (int j = i + 1; j < statement.orBranches.size(); j++) {
+        compile(statement.orBranches.get(j).condition);
+        emit(POP, null);
+      }
+      exits[i + 1] = emitJump(JUMP, null);
+      patchJumps(skipOr);
+    }
+
+    if (statement.elseBranch != null) { compile(statement.elseBranch); }
+
+    for (int exit : exits) { if (exit >= 0) { patchJump(exit); } }
+    return null;
+  }
+
+  @Override
+  public Void visitOrStatement(Statement.Or statement) {
+    List<Integer> skip = condition(statement.condition);
+    compile(statement.orBranch);
+    patchJumps(skip);
+    return null;
+  }
+
+  @Override
+  public Void visitWhileStatement(Statement.While statement) {
+    int entry = emitJump(JUMP, null);
+    int body = chunk.count;
+    compile(statement.body);
+    patchJump(entry);
+    loop(statement.condition, body);
+    return null;
+  }
+
+  @Override
+  public Void visitAsStatement(Statement.As statement) {
+    open(statement.size);
+    if (statement.initializer != null) { compile(statement.initializer); }
+
+    int entry = emitJump(JUMP, null);
+    int body = chunk.count;
+    compile(statement.body);
+
+    // a counted loop steps its counter on the way into its test, which is entered past the step the first time
+    if (statement.slot >= 0 && bare(statement.condition, true) != null && local(0, statement.slot) != STACKED) {
+      Express.Count count = (Express.Count)statement.increment;
+      emit(LOOP, count.operator, local(0, statement.slot), count.operator.type == TokenType.PLUSPLUS ? 1 : -1);
+    } else if (statement.increment != null) {
+      effect(statement.increment);
+    }
+    patchJump(entry);
+    loop(statement.condition, body);
+    close();
+    return null;
+  }
+
+  @Override
+  public Void visitPrintStatement(Statement.Print statement) {
+    compile(statement.expression);
+    emit(PRINT, null);
+    return null;
+  }
+
+  @Override
+  public Void visitReturnStatement(Statement.Return statement) {
+    if (statement.tail != null) {
+      Express.Calling call = (Express.Calling)statement.value;
+      compile(call.called);
+      for (Express argument : call.args) { compile(argument); }
+      emit(TAIL_CALL, callee(call.called), call.args.size());
+    } else if (statement.value != null) {
+      int value = operand(statement.value);
+      if (value == STACKED) { compile(statement.value); }
+      emit(RETURN, statement.keyword, value);
+      return null;
+    } else {
+      emit(NONE, statement.keyword);
+    }
+    emit(RETURN, statement.keyword, STACKED);
+    return null;
+  }
+
+  @Override
+  public Void visitBodyStatement(Statement.Body statement) {
+    if (!statement.scoped) {
+      compileBody(statement.statements);
+      return null;
+    }
+
+    open(statement.size);
+    compileBody(statement.statements);
+    close();
+    return null;
+  }
+
+  @Override
+  public Void visitObjStatement(Statement.Obj object) {
+    if (framing()) { return unframed(); }
+
+    int methods = 0;
+    for (Statement statement : object.body) {
+      if (!(statement instanceof Statement.Operation)) { continue; }
+
+      emit(CONSTANT, null, chunk.constant(operation((Statement.Operation)statement, true)));
+      methods++;
+    }
+
+    emit(OBJ, object.name, chunk.constant(object), methods);
+    return null;
+  }
+
+  @Override
+  public Void visitEnumStatement(Statement.Enum enumstmnt) {
+    if (framing()) { return unframed(); }
+
+    emit(ENUM, enumstmnt.name, chunk.constant(enumstmnt));
+    return null;
+  }
+
+  @Override
+  public Void visitFormStatement(Statement.Form form) {
+    if (framing()) { return unframed(); }
+
+    emit(NONE, form.name);
+    define(form.name, form.slot);
+
+    for (Statement.Variable member : form.members) {
+      if (member.initial != null) {
+        compile(member.initial);
+      } else {
+        emit(NONE, member.name);
+      }
+    }
+
+    emit(FORM, form.name, chunk.constant(form), form.members.size());
+    return null;
+  }
+
+  @Override
+  public Void visitVariableStatement(Statement.Variable statement) {
+    if (statement.initial != null) {
+      compile(statement.initial);
+    } else {
+      emit(NONE, statement.name);
+    }
+    define(statement.name, statement.slot);
+    return null;
+  }
+
+
+  /////////////////
+  // EXPRESSIONS //
+  /////////////////
+
+  @Override
+  public Void visitAssignExpress(Express.Assign express) {
+    compile(express.value);
+    assign(express.name, express.depth, express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitCountExpress(Express.Count express) {
+    compile(express.identifier);
+    emit(express.operator.type == TokenType.PLUSPLUS ? INCREMENT : DECREMENT, express.operator);
+    assign(express.name, express.depth, express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitUnaryExpress(Express.Unary express) {
+    compile(express.right);
+    emit(express.operator.type == TokenType.NOT ? NOT : NEGATE, express.operator);
+    return null;
+  }
+
+  @Override
+  public Void visitBinaryExpress(Express.Binary express) {
+    if (express.operator.type == TokenType.POWER) {
+      compile(express.left);
+      compile(express.right);
+      emit(POWER, express.operator);
+      return null;
+    }
+
+    // a local or a constant operand is read by the operator itself; the left one only when the right cannot change it
+    int right = operand(express.right);
+    int left = operand(express.left);
+    if (left != STACKED && right == STACKED && !pure(express.right)) { left = STACKED; }
+
+    if (left == STACKED) { compile(express.left); }
+    if (right == STACKED) { compile(express.right); }
+
+    switch (express.operator.type) {
+      case INEQ:     emit(NOT_EQUAL, express.operator, left, right, -1); break;
+      case EQEQ:     emit(EQUAL, express.operator, left, right, -1); break;
+      case GREATER:  emit(GREATER, express.operator, left, right, -1); break;
+      case GREAT_EQ: emit(GREAT_EQ, express.operator, left, right, -1); break;
+      case LESSER:   emit(LESSER, express.operator, left, right, -1); break;
+      case LESS_EQ:  emit(LESS_EQ, express.operator, left, right, -1); break;
+      case MINUS:    emit(SUBTRACT, express.operator, left, right, -1); break;
+      case PLUS:     emit(ADD, express.operator, left, right, -1); break;
+      case WHACK:    emit(DIVIDE, express.operator, left, right, -1); break;
+      case STAR:     emit(MULTIPLY, express.operator, left, right, -1); break;
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitCallingExpress(Express.Calling express) {
+    compile(express.called);
+    for (Express argument : express.args) { compile(argument); }
+    emit(CALL, callee(express.called), express.args.size());
+    return null;
+  }
+
+  @Override
+  public Void visitInvokeExpress(Express.Invoke express) {
+    compile(express.object);
+    emit(GET_METHOD, express.name, chunk.constant(express.name), chunk.constant(express.cache));
+    for (Express argument : express.args) { compile(argument); }
+    emit(INVOKE, express.name, express.args.size());
+    return null;
+  }
+
+  @Override
+  public Void visitSelfExpress(Express.Self express) {
+    variable(express.keyword, express.depth, express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitGetPropsExpress(Express.GetProps express) {
+    compile(express.object);
+    emit(GET_PROPS, express.name, chunk.constant(express.name), chunk.constant(express.cache));
+    return null;
+  }
+
+  @Override
+  public Void visitSetPropsExpress(Express.SetProps express) {
+    compile(express.object);
+    compile(express.value);
+    emit(SET_PROPS, express.name, chunk.constant(express.name), chunk.constant(express.cache));
+    return null;
+  }
+
+  @Override
+  public Void visitGroupingExpress(Express.Grouping express) {
+    compile(express.expression);
+    return null;
+  }
+
+  @Override
+  public Void visitLiteralExpress(Express.Literal express) {
+    if (express.value == null) {
+      emit(NONE, null);
+    } else if (express.value.equals(true)) {
+      emit(TRUE, null);
+    } else if (express.value.equals(false)) {
+      emit(FALSE, null);
+    } else {
+      emit(CONSTANT, null, chunk.constant(express.value));
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitLogicalExpress(Express.Logical express) {
+    compile(express.left);
+    int shortCircuit = emitJump(express.operator.type == TokenType.OR_OP ? JUMP_IF_TRUE_OR : JUMP_IF_FALSE_OR, null);
+    emit(POP, null);
+    compile(express.right);
+    patchJump(shortCircuit);
+    return null;
+  }
+
+  @Override
+  public Void visitVariableExpress(Express.Variable express) {
+    variable(express.name, express.depth, express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitParentVariableExpress(Express.ParentVariable express) {
+    if (framing()) { return unframed(); }
+
+    emit(GET_PARENT, express.name, chunk.constant(express.name), express.depth, express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitGlobalVariableExpress(Express.GlobalVariable express) {
+    emit(GET_ROOT, express.name, chunk.constant(express.name), express.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitParentAssignExpress(Express.ParentAssign express) {
+    if (framing()) { return unframed(); }
+
+    Express.ParentVariable target = express.target;
+    compile(express.value);
+    emit(SET_PARENT, target.name, chunk.constant(target.name), target.depth, target.slot);
+    return null;
+  }
+
+  @Override
+  public Void visitGlobalAssignExpress(Express.GlobalAssign express) {
+    compile(express.value);
+    emit(SET_ROOT, express.name, chunk.constant(express.name), express.slot);
+    return null;
+  }
+
+
+  /// HELPER FUNCTIONS //
+
+  private void compile(Statement statement) { statement.accept(this); }
+  private void compile(Express express) { express.accept(this); }
+
+  private void compileBody(List<Statement> statements) {
+    for (Statement statement : statements) { compile(statement); }
+  }
+
+  // an operation keeps its locals in slots of its frame on the VM stack, its block scopes laid out after its own,
+  // unless it is a method or declares or reaches into something that holds on to a Field
+  private Chunk operation(Statement.Operation operation, boolean method) {
+    Chunk enclosing = chunk;
+    List<Integer> outer = frame;
+    boolean wasUnframed = unframed;
+
+    Chunk compiled = method ? null : operation(operation, new ArrayList<>());
+    if (compiled == null) { compiled = operation(operation, null); }
+
+    chunk = enclosing;
+    frame = outer;
+    unframed = wasUnframed;
+    return compiled;
+  }
+
+  private Chunk operation(Statement.Operation operation, List<Integer> frame) {
+    chunk = new Chunk(operation);
+    this.frame = frame;
+    unframed = false;
+
+    if (frame != null) { open(operation.size); }
+    compileBody(operation.body);
+    emit(FALL_THROUGH, operation.name);
+    return unframed ? null : chunk.seal();
+  }
+
+  // a scope is open on the VM stack, where nothing keeping a Field can reach its locals
+  private boolean framing() {
+    return frame != null && !frame.isEmpty();
+  }
+
+  private Void unframed() {
+    unframed = true;
+    return null;
+  }
+
+  // a scope is a Field pushed at run time, or the next slots of the frame in a chunk keeping its locals there
+  private void open(int size) {
+    if (frame == null) {
+      emit(PUSH_SCOPE, null, size);
+      return;
+    }
+
+    frame.add(start(frame.size()) + size);
+    chunk.slots = Math.max(chunk.slots, frame.get(frame.size() - 1));
+  }
+
+  private void close() {
+    if (frame == null) {
+      emit(POP_SCOPE, null);
+    } else {
+      frame.remove(frame.size() - 1);
+    }
+  }
+
+  // the frame slot an open scope's slots start from, the operation's own scope being the first
+  private int start(int scope) {
+    return scope == 0 ? 0 : frame.get(scope - 1);
+  }
+
+  // a local of a frame on the VM stack, as its slot there, or -1 for one in a Field
+  private int framed(int depth, int slot) {
+    if (frame == null || depth < 0 || depth >= frame.size()) { return -1; }
+    return start(frame.size() - 1 - depth) + slot;
+  }
+
+  // how many Fields out a local lies from the running one; on the VM stack, the closure is the running Field
+  private int distance(int depth) {
+    return frame == null ? depth : depth - frame.size();
+  }
+
+  // the running frame's own slots are read and written without walking to them
+  private void variable(Token name, int depth, int slot) {
+    if (depth < 0) {
+      emit(GET_GLOBAL, name, chunk.constant(name), slot);
+    } else if (framed(depth, slot) >= 0) {
+      emit(GET_FRAME, name, framed(depth, slot));
+    } else if (distance(depth) == 0) {
+      emit(GET_SLOT, name, slot);
+    } else {
+      emit(GET_LOCAL, name, distance(depth), slot);
+    }
+  }
+
+  private void assign(Token name, int depth, int slot) {
+    if (depth < 0) {
+      emit(SET_GLOBAL, name, chunk.constant(name), slot);
+    } else if (framed(depth, slot) >= 0) {
+      emit(SET_FRAME, name, framed(depth, slot));
+    } else if (distance(depth) == 0) {
+      emit(SET_SLOT, name, slot);
+    } else {
+      emit(SET_LOCAL, name, distance(depth), slot);
+    }
+  }
+
+  // a comparison branches by itself, and each side of an '&&' as a condition of its own; either way, the words to
+  // patch with where a false condition jumps
+  private List<Integer> condition(Express condition) {
+    List<Integer> skips = new ArrayList<>();
+    condition(condition, skips);
+    return skips;
+  }
+
+  private void condition(Express condition, List<Integer> skips) {
+    while (condition instanceof Express.Grouping) { condition = ((Express.Grouping)condition).expression; }
+
+    if (condition instanceof Express.Logical && ((Express.Logical)condition).operator.type == TokenType.AND_OP) {
+      condition(((Express.Logical)condition).left, skips);
+      condition(((Express.Logical)condition).right, skips);
+    } else if (bare(condition, true) != null) {
+      compile(condition);
+      skips.add(chunk.count - 1);
+    } else {
+      compile(condition);
+      skips.add(emitJump(JUMP_IF_FALSE, null));
+    }
+  }
+
+  // a loop's condition follows its body and jumps back to it while true, so a pass through the loop takes one jump
+  private void loop(Express condition, int body) {
+    if (bare(condition, true) != null) {
+      compile(bare(condition, true));
+      chunk.patch(chunk.count - 1, -2 - body);
+      return;
+    }
+
+    compile(condition);
+    int exit = emitJump(JUMP_IF_FALSE, null);
+    emit(JUMP, null, body);
+    patchJump(exit);
+  }
+
+  // the binary expression beneath any grouping, when it is a comparison, or arithmetic other than a power
+  private static Express.Binary bare(Express express, boolean comparison) {
+    while (express instanceof Express.Grouping) { express = ((Express.Grouping)express).expression; }
+    if (!(express instanceof Express.Binary)) { return null; }
+
+    switch (((Express.Binary)express).operator.type) {
+      case INEQ: case EQEQ: case GREATER: case GREAT_EQ: case LESSER: case LESS_EQ:
+        return comparison ? (Express.Binary)express : null;
+      case POWER:
+        return null;
+      default:
+        return comparison ? null : (Express.Binary)express;
+    }
+  }
+
+  private int operand(Express express) {
+    if (express instanceof Express.Grouping) { return operand(((Express.Grouping)express).expression); }
+    if (express instanceof Express.Variable) {
+      Express.Variable variable = (Express.Variable)express;
+      return variable.depth < 0 ? global(variable.slot) : local(variable.depth, variable.slot);
+    }
+    if (express instanceof Express.Literal && ((Express.Literal)express).value instanceof Number) {
+      return -2 - chunk.constant(((Express.Literal)express).value);
+    }
+    return STACKED;
+  }
+
+  private static int global(int index) {
+    return index >= 0 && index <= 0xFFFF ? GLOBAL + index : STACKED;
+  }
+
+  private int local(int depth, int slot) {
+    if (depth < 0 || slot < 0) { return STACKED; }
+    if (framed(depth, slot) >= 0) { return framed(depth, slot) <= 0xFFFF ? FRAMED + framed(depth, slot) : STACKED; }
+    if (distance(depth) >= 0x7FFF || slot > 0xFFFF) { return STACKED; }
+    return distance(depth) << 16 | slot;
+  }
+
+  // evaluating it assigns nothing and calls nothing, so a local read on either side of it reads the same
+  private static boolean pure(Express express) {
+    if (express instanceof Express.Grouping) { return pure(((Express.Grouping)express).expression); }
+    if (express instanceof Express.Unary) { return pure(((Express.Unary)express).right); }
+    if (express instanceof Express.Binary) {
+      return pure(((Express.Binary)express).left) && pure(((Express.Binary)express).right);
+    }
+    if (express instanceof Express.Logical) {
+      return pure(((Express.Logical)express).left) && pure(((Express.Logical)express).right);
+    }
+    return express instanceof Express.Literal || express instanceof Express.Variable
+        || express instanceof Express.ParentVariable || express instanceof Express.GlobalVariable;
+  }
+
+  private void define(Token name, int slot) {
+    if (slot < 0) {
+      emit(DEFINE, name, chunk.constant(name));
+    } else if (local(0, slot) != STACKED) {
+      emit(STORE, name, local(0, slot), STACKED);
+    } else {
+      assign(name, 0, slot);
+      emit(POP, null);
+    }
+  }
+
+  // an expression whose value goes unused; assigning or counting a local then leaves nothing to pop, and arithmetic
+  // or an operand assigned to one is stored there straight. a global is stored to the same way, though arithmetic
+  // is worked out on the stack first
+  private void effect(Express express) {
+    if (express instanceof Express.Assign) {
+      Express.Assign assign = (Express.Assign)express;
+      int local = assign.depth < 0 ? global(assign.slot) : local(assign.depth, assign.slot);
+      if (local >= 0 && bare(assign.value, false) != null) {
+        compile(bare(assign.value, false));
+        chunk.patch(chunk.count - 1, local);
+        return;
+      }
+      if (local != STACKED) {
+        int value = operand(assign.value);
+        if (value == STACKED) { compile(assign.value); }
+        emit(STORE, assign.name, local, value);
+        return;
+      }
+    } else if (express instanceof Express.Count) {
+      Express.Count count = (Express.Count)express;
+      if (local(count.depth, count.slot) != STACKED) {
+        emit(STEP, count.operator, local(count.depth, count.slot), count.operator.type == TokenType.PLUSPLUS ? 1 : -1);
+        return;
+      }
+    }
+
+    compile(express);
+    emit(POP, null);
+  }
+
+  // the name a call is made through, so the VM can place calls in its call chain
+  private static Token callee(Express called) {
+    if (called instanceof Express.Variable) { return ((Express.Variable)called).name; }
+    if (called instanceof Express.ParentVariable) { return ((Express.ParentVariable)called).name; }
+    if (called instanceof Express.GlobalVariable) { return ((Express.GlobalVariable)called).name; }
+    if (called instanceof Express.GetProps) { return ((Express.GetProps)called).name; }
+    if (called instanceof Express.Grouping) { return callee(((Express.Grouping)called).expression); }
+    if (called instanceof Express.Calling) { return callee(((Express.Calling)called).called); }
+
+    return null;
+  }
+
+  private void emit(int instruction, Token token, int... operands) {
+    chunk.write(instruction, token);
+    for (int operand : operands) { chunk.write(operand, token); }
+  }
+
+  private int emitJump(int instruction, Token token) {
+    chunk.write(instruction, token);
+    return chunk.write(-1, token);
+  }
+
+  private void patchJump(int offset) {
+    chunk.patch(offset, chunk.count);
+  }
+
+  private void patchJumps(List<Integer> offsets) {
+    for (int offset : offsets) { patchJump(offset); }
+  }
+}
@@ -6,17 +6,34 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class DisC {
   private static final Interpreter interpreter = new Interpreter();
+  // types are only inferred over a whole file; -Ddis.infer=false turns it off, -Ddis.infer.report lists the proofs
+  static final boolean infer = Boolean.parseBoolean(System.getProperty("dis.infer", "true"));
+  private static final boolean inferReport = Boolean.getBoolean("dis.infer.report");
+  // -Ddis.opt=false skips the optimizer, -Ddis.opt.<pass>=false one of its passes, -Ddis.opt.report says what each did
+  static final boolean optimize = Boolean.parseBoolean(System.getProperty("dis.opt", "true"));
+  private static final boolean optimizeReport = Boolean.getBoolean("dis.opt.report");
+  private static final Optimizer optimizer = new Optimizer();
   static boolean hadError = false;
   static boolean hadRuntimeError = false;
   static boolean hadRuntimeArgsError = false;
 
   public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equals("--vm")) {
+      interpreter.useEngine(Interpreter.Engine.BYTECODE);
+      args = Arrays.copyOfRange(args, 1, args.length);
+    } else if (args.length > 0 && args[0].equals("--closure")) {
+      interpreter.useEngine(Interpreter.Engine.CLOSURE);
+      args = Arrays.copyOfRange(args, 1, args.length);
+    }
+
     if (args.length > 1) {
-      System.out.println("Usage: disc [script]");
+      System.out.println("Usage: disc [--vm | --closure] [script]");
       System.exit(64);
     } else if (args.length == 1) {
       runFile(args[0]);
@@ -27,7 +44,7 @@ public class DisC {
 
   private static void runFile(String path) throws IOException{
     byte[] bytes = Files.readAllBytes(Paths.get(path));
-    run(new String(bytes, Charset.defaultCharset()));
+    run(new String(bytes, Charset.defaultCharset()), infer);
     if (hadError) System.exit(65);
     if (hadRuntimeError || hadRuntimeArgsError) System.exit(70);
   }
@@ -40,12 +57,12 @@ public class DisC {
       System.out.print("DisC # ");
       String line = reader.readLine();
       if (line == null) break;
-      run(line);
+      run(line, false);
       hadError = false;
     }
   }
 
-  private static void run(String source) {
+  private static void run(String source, boolean whole) {
     Scanner scanner = new Scanner(source);
     List<Token> tokens = scanner.scanTokens();
     Parser parser = new Parser(tokens);
@@ -58,11 +75,19 @@ public class DisC {
     
     if(hadError) return;
 
-    Resolver resolver = new Resolver(interpreter);
+    Resolver resolver = new Resolver(interpreter.globals.names);
     resolver.resolve(statements);
 
     if(hadError) return;
 
+    List<String> optimized = optimize ? optimizer.optimize(statements, false) : new ArrayList<>();
+    if (whole) {
+      List<String> report = new Inference().infer(statements);
+      if (inferReport) { report.forEach(System.err::println); }
+      if (optimize) { optimized.addAll(optimizer.optimize(statements, true)); }
+    }
+    if (optimizeReport) { optimized.forEach(System.err::println); }
+
     // System.out.println(new PrintAST().print(expression));
     interpreter.interpret(statements);
   }
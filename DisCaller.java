@@ -1,8 +1,17 @@
 package dev.alephpt.Dis;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 interface DisCaller {
   int arity();
   Object call(Interpreter interpreter, List<Object> arguments);
+
+  // arity-specialized entry points; callers check arity() first and never build an argument list
+  default Object call0(Interpreter interpreter) { return call(interpreter, Collections.emptyList()); }
+  default Object call1(Interpreter interpreter, Object a) { return call(interpreter, Collections.singletonList(a)); }
+  default Object call2(Interpreter interpreter, Object a, Object b) { return callN(interpreter, new Object[] { a, b }); }
+  default Object call3(Interpreter interpreter, Object a, Object b, Object c) { return callN(interpreter, new Object[] { a, b, c }); }
+  default Object callN(Interpreter interpreter, Object[] arguments) { return call(interpreter, Arrays.asList(arguments)); }
 }
@@ -1,39 +1,57 @@
 package dev.alephpt.Dis;
 
 import java.util.List;
-import java.util.Map;
 
 class DisEnum implements DisCaller{
   final String name;
-  private final Map<String, Integer> elements; // need to turn this into an array
+  private final String[] elements; // element names by ordinal
+  private final Integer[] ordinals;
+  private final int[] index;       // open addressing on the element names, holding ordinal + 1
 
-  DisEnum(String name, Map<String, Integer> elements) {
+  DisEnum(String name, String[] elements) {
     this.name = name;
     this.elements = elements;
+    this.ordinals = new Integer[elements.length];
+    this.index = new int[Integer.highestOneBit(Math.max(elements.length, 1) * 2) * 2];
+
+    for (int ordinal = 0; ordinal < elements.length; ordinal++) {
+      ordinals[ordinal] = ordinal;
+      index[probe(elements[ordinal])] = ordinal + 1;
+    }
+  }
+
+  // the slot holding this name, or the empty slot it would go in
+  private int probe(String name) {
+    int mask = index.length - 1;
+    int at = name.hashCode() & mask;
+    while (index[at] != 0 && !elements[index[at] - 1].equals(name)) { at = (at + 1) & mask; }
+    return at;
   }
 
   Integer findElement(String name) {
-    if (elements.containsKey(name)) {
-      return elements.get(name);
-    }
-    return null;
+    int ordinal = index[probe(name)] - 1;
+    return ordinal < 0 ? null : ordinals[ordinal];
   }
 
-  String findElementName(Integer el) {
-    for(Map.Entry<String, Integer> element : elements.entrySet()) {
-      if(element.getValue() == el) {
-        return element.getKey();
-      }
-    }
-    return null;
+  String findElementName(int ordinal) {
+    if (ordinal < 0 || ordinal >= elements.length) { return null; }
+    return elements[ordinal];
+  }
+
+  static String[] namesOf(List<Express.Variable> elements) {
+    String[] names = new String[elements.size()];
+    for (int i = 0; i < names.length; i++) { names[i] = elements.get(i).name.lexeme; }
+    return names;
   }
 
   @Override
   public Object call(Interpreter interpreter, List<Object> arguments) {
-    DisSample sample = new DisSample(this);
-    return sample;
+    return new DisSample(this);
   }
 
+  @Override
+  public Object call0(Interpreter interpreter) { return new DisSample(this); }
+
   @Override
   public int arity() {
     return 0;
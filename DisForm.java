@@ -5,7 +5,21 @@ import java.util.Map;
 
 class DisForm implements DisCaller{
   final String name;
+  final Shape shape = new Shape();
   private final Map<String, Object> members;
+  private final DisCaller table = new DisCaller() {
+    @Override
+    public int arity() { return 0; }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> args) { return call0(interpreter); }
+
+    @Override
+    public Object call0(Interpreter interpreter) { return new DisTable(DisForm.this, members); }
+
+    @Override
+    public String toString() { return "<Native Operation>"; }
+  };
 
   DisForm(String name, Map<String, Object> members) {
     this.name = name;
@@ -20,6 +34,13 @@ class DisForm implements DisCaller{
     return null;
   }
 
+  // form::table-> starts an empty columnar table of the form's instances
+  Object get(Token name) {
+    if (name.lexeme.equals("table")) { return table; }
+
+    throw new RuntimeError(name, "Form '" + this.name + "' only has a 'table' property.");
+  }
+
   @Override
   public Object call(Interpreter interpreter, List<Object> arguments) {
     DisTaste taste = new DisTaste(this);
@@ -3,29 +3,30 @@ package dev.alephpt.Dis;
 import java.util.HashMap;
 import java.util.Map;
 
-class DisInstance {
+class DisInstance extends Shaped {
   private DisObj obj;
-  private final Map<String, Object> fields = new HashMap<>();
+  private Map<DisOp, DisOp> bound; // methods read off this instance as values, bound once
 
   DisInstance(DisObj obj) {
+    super(obj.shape);
     this.obj = obj;
   }
 
-  Object get(Token name) {
-    if (fields.containsKey(name.lexeme)) {
-      return fields.get(name.lexeme);
-    }
+  // the obj's method by this name, unless a field shadows it
+  DisOp method(Token name, PropCache cache) { return (DisOp)unbound(name, cache); }
 
-    DisOp method = obj.findMethod(name.lexeme);
-    if (method != null) {
-      return method.bind(this);
-    }
+  @Override
+  Object fallback(String name) { return obj.findMethod(name); }
 
-    throw new RuntimeError(name, "Undefined object property '" + name.lexeme + "'.");
+  @Override
+  Object found(Object method) {
+    if (bound == null) { bound = new HashMap<>(); }
+    return bound.computeIfAbsent((DisOp)method, unbound -> unbound.bind(this));
   }
 
-  void set(Token name, Object value) {
-    fields.put(name.lexeme, value);
+  @Override
+  RuntimeError missing(Token name) {
+    return new RuntimeError(name, "Undefined object property '" + name.lexeme + "'.");
   }
 
   @Override
@@ -5,11 +5,19 @@ import java.util.Map;
 
 class DisObj implements DisCaller{
   final String name;
+  final Shape shape = new Shape();
   private final Map<String, DisOp> methods;
+  private final DisOp pilot;
+  private final int arity;
 
-  DisObj(String name, Map<String, DisOp> methods) {
+  DisObj(String name, Map<String, DisOp> methods, List<String> layout) {
     this.name = name;
     this.methods = methods;
+    this.pilot = findMethod("pilot");
+    this.arity = pilot == null ? 0 : pilot.arity();
+
+    // lay out the fields the pilot sets, so the first instance is already allocated at full size
+    if (layout != null) { shape.reserve(layout); }
   }
 
   DisOp findMethod(String name) {
@@ -23,22 +31,63 @@ class DisObj implements DisCaller{
   @Override
   public Object call(Interpreter interpreter, List<Object> arguments) {
     DisInstance instance = new DisInstance(this);
-    DisOp initializer = findMethod("pilot");
+    if (pilot == null) { return instance; }
 
-    if(initializer != null) {
-      initializer.bind(instance).call(interpreter, arguments);
-    }
+    Field frame = pilot.frame(instance);
+    for (int i = 0; i < arity; i++) { frame.slots[i] = arguments.get(i); }
+    pilot.run(interpreter, frame);
+    return instance;
+  }
 
+  @Override
+  public Object call0(Interpreter interpreter) {
+    DisInstance instance = new DisInstance(this);
+    if (pilot != null) { pilot.run(interpreter, pilot.frame(instance)); }
     return instance;
   }
 
   @Override
-  public int arity() {
-    DisOp initializer = findMethod("pilot");
-    if (initializer == null) { return 0; }
-    return initializer.arity();
+  public Object call1(Interpreter interpreter, Object a) {
+    DisInstance instance = new DisInstance(this);
+    Field frame = pilot.frame(instance);
+    frame.slots[0] = a;
+    pilot.run(interpreter, frame);
+    return instance;
+  }
+
+  @Override
+  public Object call2(Interpreter interpreter, Object a, Object b) {
+    DisInstance instance = new DisInstance(this);
+    Field frame = pilot.frame(instance);
+    frame.slots[0] = a;
+    frame.slots[1] = b;
+    pilot.run(interpreter, frame);
+    return instance;
   }
 
+  @Override
+  public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+    DisInstance instance = new DisInstance(this);
+    Field frame = pilot.frame(instance);
+    frame.slots[0] = a;
+    frame.slots[1] = b;
+    frame.slots[2] = c;
+    pilot.run(interpreter, frame);
+    return instance;
+  }
+
+  @Override
+  public Object callN(Interpreter interpreter, Object[] arguments) {
+    DisInstance instance = new DisInstance(this);
+    Field frame = pilot.frame(instance);
+    System.arraycopy(arguments, 0, frame.slots, 0, arguments.length);
+    pilot.run(interpreter, frame);
+    return instance;
+  }
+
+  @Override
+  public int arity() { return arity; }
+
   @Override
   public String toString() {
     return name;
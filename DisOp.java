@@ -1,38 +1,143 @@
 package dev.alephpt.Dis;
 
+import java.util.Arrays;
 import java.util.List;
 
 class DisOp implements DisCaller {
-  private final Statement.Operation declaration;
-  private final Field closure;
+  final Statement.Operation declaration;
+  final Field closure;
+  final Chunk chunk;
+  final Object self; // the instance a method was read off; null for plain operations and unbound methods
   private final boolean isPilot;
 
   DisOp(Statement.Operation declaration, Field closure, boolean isPilot) {
+    this(declaration, closure, isPilot, null);
+  }
+
+  DisOp(Statement.Operation declaration, Field closure, boolean isPilot, Chunk chunk) {
+    this(declaration, closure, isPilot, chunk, null);
+  }
+
+  private DisOp(Statement.Operation declaration, Field closure, boolean isPilot, Chunk chunk, Object self) {
     this.isPilot = isPilot;
     this.closure = closure;
     this.declaration = declaration;
+    this.chunk = chunk;
+    this.self = self;
+  }
+
+  // a nested operation closes over a frame of just the variables it reads from outside, copied, or shared
+  // through a Cell when they change after it is made; one declared at the top level closes over the globals
+  static Field closure(Statement.Operation declaration, Field fields, Field globals) {
+    if (declaration.free == null) { return fields; }
+    if (declaration.free.isEmpty()) { return globals; }
+
+    Field closure = new Field(globals, declaration.free.size());
+    for (int i = 0; i < closure.slots.length; i++) {
+      Capture capture = declaration.free.get(i);
+      if (capture.slot < 0) { continue; }
+
+      Field source = fields.ancestor(capture.depth);
+      closure.slots[i] = capture.shared ? source.cell(capture.slot) : source.at(capture.slot);
+    }
+    return closure;
   }
 
   DisOp bind(DisInstance objIns) {
-    Field field = new Field(closure);
-    field.define("this", objIns);
-    return new DisOp(declaration, field, isPilot);
+    return new DisOp(declaration, closure, isPilot, chunk, objIns);
   }
 
   @Override
   public Object call(Interpreter interpreter, List<Object> args) {
-    Field fields = new Field(closure);
+    Field fields = frame();
     for(int i = 0; i < declaration.params.size(); i++){
-      fields.define(declaration.params.get(i).lexeme, args.get(i));
+      fields.slots[i] = args.get(i);
     }
-    
-    try {
-      interpreter.executeBlock(declaration.body, fields);
-    } catch (Return returnValue) {
-      return returnValue.value;
+
+    return run(interpreter, fields);
+  }
+
+  @Override
+  public Object call0(Interpreter interpreter) { return run(interpreter, frame()); }
+
+  @Override
+  public Object call1(Interpreter interpreter, Object a) {
+    Field fields = frame();
+    fields.slots[0] = a;
+    return run(interpreter, fields);
+  }
+
+  @Override
+  public Object call2(Interpreter interpreter, Object a, Object b) {
+    Field fields = frame();
+    fields.slots[0] = a;
+    fields.slots[1] = b;
+    return run(interpreter, fields);
+  }
+
+  @Override
+  public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+    Field fields = frame();
+    fields.slots[0] = a;
+    fields.slots[1] = b;
+    fields.slots[2] = c;
+    return run(interpreter, fields);
+  }
+
+  @Override
+  public Object callN(Interpreter interpreter, Object[] args) {
+    Field fields = frame();
+    System.arraycopy(args, 0, fields.slots, 0, args.length);
+    return run(interpreter, fields);
+  }
+
+  private Field frame() { return frame(self); }
+
+  // parameters take the first slots of a frame sized by the Resolver, a method's receiver the slot after them
+  Field frame(Object receiver) {
+    Field fields = new Field(closure, declaration.size);
+    if (receiver != null) { fields.slots[declaration.params.size()] = receiver; }
+    return fields;
+  }
+
+  Object run(Interpreter interpreter, Field fields) {
+    if (chunk != null) { return interpreter.vm.invoke(this, fields); }
+
+    DisOp op = this;
+    for (;;) {
+      Return returned;
+      ClosureCompiler.Exec compiled = declaration.compiled;
+      if (compiled != null) {
+        returned = compiled.exec(fields);
+      } else {
+        interpreter.jit.count(declaration);
+        returned = interpreter.executeBlock(declaration.body, fields);
+      }
+
+      if (!(returned instanceof TailCall)) { return returned != null ? returned.value : op.fallThrough(fields); }
+
+      TailCall tail = (TailCall)returned;
+      op = tail.op;
+      fields = op.reframe(fields, tail.args, 0, tail.args.length);
     }
+  }
+
+  // the frame for a tail call back into this operation, written over the last one; closures copy what they
+  // read out of it, and the Cells they share stay with them when the slots are cleared
+  Field reframe(Field fields, Object[] values, int from, int count) {
+    if (fields.foregone != closure) {
+      fields = frame();
+    } else {
+      Arrays.fill(fields.slots, count, fields.slots.length, null);
+      if (self != null) { fields.slots[count] = self; }
+    }
+
+    System.arraycopy(values, from, fields.slots, 0, count);
+    return fields;
+  }
 
-    if (isPilot) return closure.getAt(0, "this");
+  Object fallThrough(Field fields) {
+    if (isPilot) return fields.at(declaration.params.size());
 
     return null;
   }
@@ -0,0 +1,25 @@
+package dev.alephpt.Dis;
+
+// one row of a DisTable, reading and writing the table's columns in place
+class DisRow {
+  private final DisTable table;
+  private final int row;
+
+  DisRow(DisTable table, int row) {
+    this.table = table;
+    this.row = row;
+  }
+
+  Object get(Token name) { return table.read(columnOf(name), row); }
+
+  void set(Token name, Object value) { table.write(columnOf(name), row, value); }
+
+  private int columnOf(Token name) {
+    int column = table.columnOf(name.lexeme);
+    if (column < 0) { throw new RuntimeError(name, "Undefined form member '" + name.lexeme + "'."); }
+    return column;
+  }
+
+  @Override
+  public String toString() { return "<" + table.form.name + " row>"; }
+}
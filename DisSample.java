@@ -3,19 +3,30 @@ package dev.alephpt.Dis;
 import java.util.HashMap;
 import java.util.Map;
 
+// the value an enum hands out when called; each call gets its own, holding any fields set on it, while
+// element lookups are shared through the enum
 class DisSample {
-  private DisEnum enumd;
-  private final Map<String, Object> fields = new HashMap<>();
+  private final DisEnum enumd;
+  private Map<String, Object> fields; // made on the first assignment, so a sample only read from stays small
 
   DisSample(DisEnum enumd) {
     this.enumd = enumd;
   }
 
-  Object get(Token name) {
-    if (fields.containsKey(name.lexeme)) {
+  Object get(Token name, PropCache cache) {
+    if (fields != null && fields.containsKey(name.lexeme)) {
       return fields.get(name.lexeme);
     }
 
+    int entry = cache.find(enumd);
+    if (entry >= 0) { return cache.target(entry); }
+
+    Object element = findElement(name);
+    cache.remember(enumd, -1, element);
+    return element;
+  }
+
+  private Object findElement(Token name) {
     if (name.literal instanceof Integer) {
       String elementName = enumd.findElementName((Integer)name.literal);
       if (elementName != null) {
@@ -32,6 +43,7 @@ class DisSample {
   }
 
   void set(Token name, Object value) {
+    if (fields == null) { fields = new HashMap<>(); }
     fields.put(name.lexeme, value);
   }
 
@@ -0,0 +1,336 @@
+package dev.alephpt.Dis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// a form's instances stored column by column, with rows handed out as views into the columns
+class DisTable {
+  final DisForm form;
+  private final Map<String, Integer> columns = new HashMap<>();
+  private final Column[] data;
+  private int size = 0;
+  private int capacity = 16;
+
+  private final DisCaller add = new Native(0) {
+    @Override
+    public Object call0(Interpreter interpreter) { return add(); }
+  };
+
+  DisTable(DisForm form, Map<String, Object> members) {
+    this.form = form;
+    this.data = new Column[members.size()];
+
+    int i = 0;
+    for (Map.Entry<String, Object> member : members.entrySet()) {
+      columns.put(member.getKey(), i);
+      data[i++] = Column.of(member.getValue(), capacity);
+    }
+  }
+
+  Object get(Token name) {
+    switch (name.lexeme) {
+      case "size": return size;
+      case "add":  return add;
+      case "row":  return row(name);
+      case "sum":
+      case "min":
+      case "max":  return scan(name);
+    }
+
+    throw new RuntimeError(name, "Tables only have 'size', 'add', 'row', 'sum', 'min' and 'max'.");
+  }
+
+  /// ROWS //
+
+  private DisRow add() {
+    if (size == capacity) {
+      capacity *= 2;
+      for (Column column : data) { column.grow(capacity); }
+    }
+
+    for (int i = 0; i < data.length; i++) { data[i] = data[i].set(size, data[i].initial); }
+    return new DisRow(this, size++);
+  }
+
+  private DisRow row(Token name, Object index) {
+    if (!(index instanceof Integer) || (Integer)index < 0 || (Integer)index >= size) {
+      throw new RuntimeError(name, "Row index " + Interpreter.asString(index) + " out of range for a table of " + size + " rows.");
+    }
+    return new DisRow(this, (Integer)index);
+  }
+
+  int columnOf(String name) {
+    Integer column = columns.get(name);
+    return column == null ? -1 : column;
+  }
+
+  Object read(int column, int row) { return data[column].get(row); }
+
+  void write(int column, int row, Object value) { data[column] = data[column].set(row, value); }
+
+  private Column column(Token scan, Object member) {
+    Integer column = member instanceof String ? columns.get(member) : null;
+    if (column == null) {
+      throw new RuntimeError(scan, "Form '" + form.name + "' has no member '" + Interpreter.asString(member) + "'.");
+    }
+    return data[column];
+  }
+
+  @Override
+  public String toString() { return "<" + form.name + " table>"; }
+
+
+  /// HELPER FUNCTIONS //
+
+  // the natives that can fail are made per lookup, so that their errors name the line calling them
+  private DisCaller row(Token name) {
+    return new Native(1) {
+      @Override
+      public Object call1(Interpreter interpreter, Object index) { return row(name, index); }
+    };
+  }
+
+  private DisCaller scan(Token name) {
+    return new Native(1) {
+      @Override
+      public Object call1(Interpreter interpreter, Object member) {
+        Column column = column(name, member);
+        switch (name.lexeme) {
+          case "sum": return column.sum(name, size);
+          case "min": return column.min(name, size);
+          default:    return column.max(name, size);
+        }
+      }
+    };
+  }
+
+
+  /// HELPER CLASSES //
+
+  private abstract static class Native implements DisCaller {
+    private final int arity;
+
+    Native(int arity) { this.arity = arity; }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> args) {
+      return arity == 0 ? call0(interpreter) : call1(interpreter, args.get(0));
+    }
+
+    @Override
+    public int arity() { return arity; }
+
+    @Override
+    public String toString() { return "<Native Operation>"; }
+  }
+
+  // one member across every row; int and double members stay unboxed until a value of another type arrives
+  private abstract static class Column {
+    final Object initial;
+
+    Column(Object initial) { this.initial = initial; }
+
+    static Column of(Object initial, int capacity) {
+      if (initial instanceof Integer) { return new Ints(initial, new int[capacity]); }
+      if (initial instanceof Double) { return new Doubles(initial, new double[capacity]); }
+      return new Objects(initial, new Object[capacity]);
+    }
+
+    abstract Object get(int row);
+    abstract Column set(int row, Object value); // this column, or a wider copy when the value does not fit
+    abstract void grow(int capacity);
+    abstract int capacity();
+    abstract Object sum(Token scan, int size);
+    abstract Object min(Token scan, int size);
+    abstract Object max(Token scan, int size);
+
+    Column widen() {
+      Object[] values = new Object[capacity()];
+      for (int i = 0; i < values.length; i++) { values[i] = get(i); }
+      return new Objects(initial, values);
+    }
+  }
+
+  private static final class Ints extends Column {
+    private int[] values;
+
+    Ints(Object initial, int[] values) {
+      super(initial);
+      this.values = values;
+    }
+
+    Object get(int row) { return values[row]; }
+
+    Column set(int row, Object value) {
+      if (value instanceof Integer) {
+        values[row] = (Integer)value;
+        return this;
+      }
+      return widen().set(row, value);
+    }
+
+    void grow(int capacity) { values = Arrays.copyOf(values, capacity); }
+
+    int capacity() { return values.length; }
+
+    Object sum(Token scan, int size) {
+      long sum = 0;
+      for (int i = 0; i < size; i++) { sum += values[i]; }
+      return Numbers.narrow(sum);
+    }
+
+    Object min(Token scan, int size) {
+      if (size == 0) { return null; }
+      int min = values[0];
+      for (int i = 1; i < size; i++) { min = Math.min(min, values[i]); }
+      return min;
+    }
+
+    Object max(Token scan, int size) {
+      if (size == 0) { return null; }
+      int max = values[0];
+      for (int i = 1; i < size; i++) { max = Math.max(max, values[i]); }
+      return max;
+    }
+  }
+
+  // ints written into a double column stay in it, exactly, with a mark so they read back as ints
+  private static final class Doubles extends Column {
+    private double[] values;
+    private boolean[] whole; // rows holding an int, made by the first one
+
+    Doubles(Object initial, double[] values) {
+      super(initial);
+      this.values = values;
+    }
+
+    Object get(int row) {
+      if (whole != null && whole[row]) { return (int)values[row]; }
+      return values[row];
+    }
+
+    Column set(int row, Object value) {
+      if (value instanceof Double) {
+        values[row] = (Double)value;
+        if (whole != null) { whole[row] = false; }
+        return this;
+      }
+      if (value instanceof Integer) {
+        if (whole == null) { whole = new boolean[values.length]; }
+        values[row] = (Integer)value;
+        whole[row] = true;
+        return this;
+      }
+      return widen().set(row, value);
+    }
+
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+      if (whole != null) { whole = Arrays.copyOf(whole, capacity); }
+    }
+
+    int capacity() { return values.length; }
+
+    // as in a column of objects, ints alone sum to a whole number and any double makes the result a double
+    Object sum(Token scan, int size) {
+      double sum = 0;
+      for (int i = 0; i < size; i++) { sum += values[i]; }
+      if (whole == null || size == 0) { return sum; }
+
+      long total = 0;
+      for (int i = 0; i < size; i++) {
+        if (!whole[i]) { return sum; }
+        total += (long)values[i];
+      }
+      return Numbers.narrow(total);
+    }
+
+    Object min(Token scan, int size) {
+      if (size == 0) { return null; }
+      if (whole != null) { return pick(size, true); }
+
+      double min = values[0];
+      for (int i = 1; i < size; i++) { min = Math.min(min, values[i]); }
+      return min;
+    }
+
+    Object max(Token scan, int size) {
+      if (size == 0) { return null; }
+      if (whole != null) { return pick(size, false); }
+
+      double max = values[0];
+      for (int i = 1; i < size; i++) { max = Math.max(max, values[i]); }
+      return max;
+    }
+
+    // the first least or greatest row, read back as the type it was written with
+    private Object pick(int size, boolean least) {
+      Object picked = get(0);
+      for (int i = 1; i < size; i++) {
+        Object value = get(i);
+        if (least ? Numbers.less(value, picked) : Numbers.greater(value, picked)) { picked = value; }
+      }
+      return picked;
+    }
+  }
+
+  private static final class Objects extends Column {
+    private Object[] values;
+
+    Objects(Object initial, Object[] values) {
+      super(initial);
+      this.values = values;
+    }
+
+    Object get(int row) { return values[row]; }
+
+    Column set(int row, Object value) {
+      values[row] = value;
+      return this;
+    }
+
+    void grow(int capacity) { values = Arrays.copyOf(values, capacity); }
+
+    int capacity() { return values.length; }
+
+    // whole numbers the tower widened into this column stay whole, and a double cell makes the result a double;
+    // none cells are rows added but never filled, and are skipped
+    Object sum(Token scan, int size) {
+      Object sum = 0;
+      for (int i = 0; i < size; i++) {
+        if (values[i] != null) { sum = Numbers.add(sum, number(scan, i)); }
+      }
+      return sum;
+    }
+
+    Object min(Token scan, int size) {
+      Object min = null;
+      for (int i = 0; i < size; i++) {
+        if (values[i] == null) { continue; }
+
+        Object value = number(scan, i);
+        if (min == null || Numbers.less(value, min)) { min = value; }
+      }
+      return min;
+    }
+
+    Object max(Token scan, int size) {
+      Object max = null;
+      for (int i = 0; i < size; i++) {
+        if (values[i] == null) { continue; }
+
+        Object value = number(scan, i);
+        if (max == null || Numbers.greater(value, max)) { max = value; }
+      }
+      return max;
+    }
+
+    private Object number(Token scan, int row) {
+      if (Numbers.isNumber(values[row])) { return values[row]; }
+      throw new RuntimeError(scan,
+          "Only columns of numbers can be scanned, but row " + row + " holds '" + Interpreter.asString(values[row]) + "'.");
+    }
+  }
+}
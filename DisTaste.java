@@ -1,31 +1,19 @@
 package dev.alephpt.Dis;
 
-import java.util.HashMap;
-import java.util.Map;
-
-class DisTaste {
+class DisTaste extends Shaped {
   private DisForm form;
-  private final Map<String, Object> fields = new HashMap<>();
 
   DisTaste(DisForm form) {
+    super(form.shape);
     this.form = form;
   }
 
-  Object get(Token name) {
-    if (fields.containsKey(name.lexeme)) {
-      return fields.get(name.lexeme);
-    }
-
-    Object member = form.findMember(name.lexeme);
-    if (member != null) {
-      return member;
-    }
-
-    throw new RuntimeError(name, "Undefined form member '" + name.lexeme + "'.");
-  }
+  @Override
+  Object fallback(String name) { return form.findMember(name); }
 
-  void set(Token name, Object value) {
-    fields.put(name.lexeme, value);
+  @Override
+  RuntimeError missing(Token name) {
+    return new RuntimeError(name, "Undefined form member '" + name.lexeme + "'.");
   }
 
   @Override
@@ -3,6 +3,7 @@ package dev.alephpt.Dis;
 import java.util.List;
 
 abstract class Express {
+  Type type = Type.ANY;
 
   interface Visitor<R> {
     R visitAssignExpress(Assign express);
@@ -10,6 +11,7 @@ abstract class Express {
     R visitUnaryExpress(Unary express);
     R visitBinaryExpress(Binary express);
     R visitCallingExpress(Calling express);
+    R visitInvokeExpress(Invoke express);
     R visitSelfExpress(Self express);
     R visitGetPropsExpress(GetProps express);
     R visitSetPropsExpress(SetProps express);
@@ -19,6 +21,8 @@ abstract class Express {
     R visitVariableExpress(Variable express);
     R visitParentVariableExpress(ParentVariable express);
     R visitGlobalVariableExpress(GlobalVariable express);
+    R visitParentAssignExpress(ParentAssign express);
+    R visitGlobalAssignExpress(GlobalAssign express);
   }
 
 
@@ -36,6 +40,8 @@ abstract class Express {
 
     final Token name;
     final Express value;
+    int depth = -1;
+    int slot = -1;
   }
 
 
@@ -55,6 +61,10 @@ abstract class Express {
     final Token operator;
     final Express identifier;
     final Token name;
+    int depth = -1;
+    int slot = -1;
+    Operands operands = Operands.UNSEEN;
+    boolean proven;
   }
 
 
@@ -72,6 +82,8 @@ abstract class Express {
 
     final Token operator;
     final Express right;
+    Operands operands = Operands.UNSEEN;
+    boolean proven;
   }
 
 
@@ -91,6 +103,8 @@ abstract class Express {
     final Express left;
     final Token operator;
     final Express right;
+    Operands operands = Operands.UNSEEN;
+    boolean proven;
   }
 
 
@@ -111,6 +125,26 @@ abstract class Express {
   }
 
 
+  // Invoke Express Definition //
+  static class Invoke extends Express {
+    Invoke(Express object, Token name, List<Express> args) {
+      this.object = object;
+      this.name = name;
+      this.args = args;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitInvokeExpress(this);
+    }
+
+    final Express object;
+    final Token name;
+    final List<Express> args;
+    PropCache cache = new PropCache();
+  }
+
+
   // Self Express Definition //
   static class Self extends Express {
     Self(Token keyword) {
@@ -123,6 +157,8 @@ abstract class Express {
     }
 
     final Token keyword;
+    int depth = -1;
+    int slot = -1;
   }
 
 
@@ -140,6 +176,7 @@ abstract class Express {
 
     final Express object;
     final Token name;
+    PropCache cache = new PropCache();
   }
 
 
@@ -161,6 +198,7 @@ abstract class Express {
     final Token locale;
     final Token name;
     final Express value;
+    PropCache cache = new PropCache();
   }
 
 
@@ -225,6 +263,8 @@ abstract class Express {
     }
 
     final Token name;
+    int depth = -1;
+    int slot = -1;
   }
 
 
@@ -240,6 +280,8 @@ abstract class Express {
     }
 
     final Token name;
+    int depth = 1;
+    int slot = -1;
   }
 
 
@@ -255,6 +297,42 @@ abstract class Express {
     }
 
     final Token name;
+    int slot = -1;
+  }
+
+
+  // ParentAssign Express Definition //
+  static class ParentAssign extends Express {
+    ParentAssign(ParentVariable target, Express value) {
+      this.target = target;
+      this.value = value;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitParentAssignExpress(this);
+    }
+
+    final ParentVariable target;
+    final Express value;
+  }
+
+
+  // GlobalAssign Express Definition //
+  static class GlobalAssign extends Express {
+    GlobalAssign(Token name, Express value) {
+      this.name = name;
+      this.value = value;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitGlobalAssignExpress(this);
+    }
+
+    final Token name;
+    final Express value;
+    int slot = -1;
   }
 
 
@@ -1,84 +1,184 @@
 package dev.alephpt.Dis;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 class Field {
+  // a slot holding one of these tags keeps its number unboxed in raw, at the same index
+  static final Object INT = new Object();
+  static final Object DOUBLE = new Object();
+
+  // a global that has not been defined yet, as distinct from one defined as none
+  private static final Object UNDEFINED = new Object();
+
   final Field foregone;
-  private final Map<String, Object> values = new HashMap<>();
+  final Object[] slots;
+  long[] raw; // allocated by the first unboxed store into this frame
+  final Globals names; // only the global scope, handing out the indices into its table
+  private Object[] table;
 
   Field() {
     foregone = null;
+    slots = null;
+    names = new Globals();
+    table = new Object[0];
   }
 
-  Field(Field foregone) {
+  Field(Field foregone, int size) {
     this.foregone = foregone;
+    this.slots = new Object[size];
+    this.names = null;
   }
 
-  Object globalGet(Token name) {
-    while (foregone != null) { return foregone.globalGet(name); }
+  /// GLOBALS //
 
-    if (values.containsKey(name.lexeme)) { return values.get(name.lexeme); }
+  // called on the global scope, with the index the Resolver gave the name
 
-    throw new RuntimeError(name, "Global Variable '" + name.lexeme + "' is undefined.");
+  Object globalGet(Token name, int index) {
+    Object value = global(index);
+    if (value == UNDEFINED) { throw new RuntimeError(name, "Global Variable '" + name.lexeme + "' is undefined."); }
+    return value;
   }
-  
-  void globalAssign(Token name, Object value) {
-    if (foregone != null) { throw new RuntimeError(name, "Invalid Assignment of '" + value + "', not in the Global Scope."); }
 
-    throw new RuntimeError(name, "Global Assignment for '" + value + "' is not implemented. Contact the developer.");
+  void globalAssign(Token name, int index, Object value) {
+    if (global(index) == UNDEFINED) { throw new RuntimeError(name, "Global Variable '" + name.lexeme + "' is undefined."); }
+    table[index] = value;
   }
 
-  Object parentGet(Token name) {
-    if (foregone != null) {
-      if (foregone.values.containsKey(name.lexeme)) { 
-        return foregone.values.get(name.lexeme); }
-      else {
-        throw new RuntimeError(name, "Parent Variable '" + name.lexeme + "' is undefined.");
-      }
-    } else {
-        throw new RuntimeError(name, "Parent indexing cannot be used with the global scope.");
-    }
+  // a name no scope declares reads as none until a global by that name is defined
+  Object get(Token name, int index) {
+    return get(index);
+  }
+
+  Object get(int index) {
+    Object value = global(index);
+    return value == UNDEFINED ? null : value;
+  }
+
+  void assign(Token name, int index, Object value) {
+    if (global(index) == UNDEFINED) { throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'."); }
+    table[index] = value;
   }
 
-  void parentAssign(Token name, Object value) {
-    throw new RuntimeError(name, "Global Assignment for '" + value + "' is not implemented. Contact the developer.");
+  void define(String name, Object value) {
+    int index = names.indexOf(name);
+    if (index >= table.length) {
+      int size = table.length;
+      table = Arrays.copyOf(table, Math.max(index + 1, size * 2));
+      Arrays.fill(table, size, table.length, UNDEFINED);
+    }
+    table[index] = value;
   }
 
-  Object get(Token name) {
-    if (values.containsKey(name.lexeme)) { return values.get(name.lexeme); }
+  private Object global(int index) { return index < table.length ? table[index] : UNDEFINED; }
 
-    if (foregone != null) { return foregone.get(name); }
+  /// PARENTS //
 
-    return values.get(null);
-    // to throw an error or return a 'none' type ?
-    // throw new RuntimeError(name, "Variable '" + name.lexeme + "' is undefined.");
+  // depth is 0 from a block run in its parent's own frame; a parent with no slot for the name is the global scope
+
+  Object parentGet(Token name, int depth, int slot) {
+    Field parent = parent(name, depth);
+    if (slot >= 0) { return parent.at(slot); }
+
+    Object value = parent.table != null ? parent.global(parent.names.indexOf(name.lexeme)) : UNDEFINED;
+    if (value == UNDEFINED) { throw new RuntimeError(name, "Parent Variable '" + name.lexeme + "' is undefined."); }
+    return value;
   }
 
-  void assign(Token name, Object value) {
-    if (values.containsKey(name.lexeme)) {
-      values.put(name.lexeme, value);
+  void parentAssign(Token name, int depth, int slot, Object value) {
+    Field parent = parent(name, depth);
+    if (slot >= 0) {
+      parent.put(slot, value);
       return;
     }
 
-    if (foregone != null) { 
-      foregone.assign(name, value); 
-      return;
+    int index = parent.table != null ? parent.names.indexOf(name.lexeme) : -1;
+    if (index < 0 || parent.global(index) == UNDEFINED) {
+      throw new RuntimeError(name, "Parent Variable '" + name.lexeme + "' is undefined.");
     }
+    parent.table[index] = value;
+  }
 
-    throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
+  private Field parent(Token name, int depth) {
+    Field parent = depth == 0 ? this : foregone;
+    if (parent == null) { throw new RuntimeError(name, "Parent indexing cannot be used with the global scope."); }
+    return parent;
   }
 
-  void assignAt(int distance, Token name, Object value) {
-    ancestor(distance).values.put(name.lexeme, value);
+  /// LOCALS //
+
+  void assignAt(int distance, int slot, Object value) {
+    ancestor(distance).put(slot, value);
   }
 
-  Object getAt(int distance, String name) {
-    return ancestor(distance).values.get(name);
+  Object getAt(int distance, int slot) {
+    return ancestor(distance).at(slot);
   }
 
-  void define(String name, Object value) {
-    values.put(name, value);
+  // the value in a slot, boxing it if it was stored unboxed
+  Object at(int slot) {
+    Object value = slots[slot];
+    if (value == INT) { return (int)raw[slot]; }
+    if (value == DOUBLE) { return Double.longBitsToDouble(raw[slot]); }
+    if (value instanceof Cell) { return ((Cell)value).value; }
+    return value;
+  }
+
+  // a slot shared with a closure holds a Cell, and writes go through it
+  void put(int slot, Object value) {
+    if (slots[slot] instanceof Cell) {
+      ((Cell)slots[slot]).value = value;
+    } else {
+      slots[slot] = value;
+    }
+  }
+
+  // the Cell a closure shares this slot through, made by the first closure to capture it
+  Cell cell(int slot) {
+    if (slots[slot] instanceof Cell) { return (Cell)slots[slot]; }
+
+    Cell cell = new Cell(at(slot));
+    slots[slot] = cell;
+    return cell;
+  }
+
+  boolean holdsInt(int slot) {
+    Object value = slots[slot];
+    return value == INT || value instanceof Integer;
+  }
+
+  int intAt(int slot) {
+    Object value = slots[slot];
+    return value == INT ? (int)raw[slot] : (Integer)value;
+  }
+
+  // steps an int slot in place; false when it holds no int, or the step would leave the int range
+  boolean count(int slot, int step) {
+    if (!holdsInt(slot)) { return false; }
+
+    int value = intAt(slot);
+    if (value == (step > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) { return false; }
+    setInt(slot, value + step);
+    return true;
+  }
+
+  void setInt(int slot, int value) {
+    if (slots[slot] instanceof Cell) {
+      ((Cell)slots[slot]).value = value;
+      return;
+    }
+    if (raw == null) { raw = new long[slots.length]; }
+    raw[slot] = value;
+    slots[slot] = INT;
+  }
+
+  void setDouble(int slot, double value) {
+    if (slots[slot] instanceof Cell) {
+      ((Cell)slots[slot]).value = value;
+      return;
+    }
+    if (raw == null) { raw = new long[slots.length]; }
+    raw[slot] = Double.doubleToRawLongBits(value);
+    slots[slot] = DOUBLE;
   }
 
   Field ancestor(int distance) {
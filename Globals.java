@@ -0,0 +1,14 @@
+package dev.alephpt.Dis;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// the index of every global name in one interpreter's globals table; handed out once per name for the life of
+// that interpreter, so everything it resolves fits its table, and a redefinition lands in the same slot
+final class Globals {
+  private final Map<String, Integer> indices = new HashMap<>();
+
+  int indexOf(String name) {
+    return indices.computeIfAbsent(name, key -> indices.size());
+  }
+}
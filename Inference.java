@@ -0,0 +1,434 @@
+package dev.alephpt.Dis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+// proves the types of expressions before they run: literal types flow through 'def' initializers, counted 'as'
+// loops, arithmetic and the values operations return, and a variable is the join of everything stored in it;
+// runs after the Resolver until nothing changes, and only over a whole program, since a later line at the
+// prompt could store anything in a global
+class Inference implements Express.Visitor<Type>, Statement.Visitor<Void> {
+  private final Stack<Scope> scopes = new Stack<>();
+  private final Map<Object, Type> types = new HashMap<>(); // by declaration, or by name for a global
+  private final Set<Object> rewritten = new HashSet<>(); // assigned after being declared
+  private final Map<Object, Statement.Operation> operations = new HashMap<>(); // variables an 'op' declares
+  private final Map<Statement.Operation, Type> returns = new LinkedHashMap<>();
+  private final Set<String> defined = new HashSet<>(); // globals declared so far, in top-level order
+  private final List<String> report = new ArrayList<>();
+  private Statement.Operation current = null;
+  private Express.Count counted = null; // the step of a counted loop proven to stay an int
+  private int sites, proven;
+  private boolean changed;
+
+  private static class Scope {
+    final Map<String, Object> names = new HashMap<>();
+    final Set<String> poisoned = new HashSet<>(); // assigned through 'parent.' before this scope declared them
+  }
+
+  // annotates the statements, and returns a report of the sites proven monomorphic
+  List<String> infer(List<Statement> statements) {
+    do {
+      changed = false;
+      defined.clear();
+      report.clear();
+      sites = proven = 0;
+      resolve(statements);
+    } while (changed);
+
+    for (Map.Entry<Statement.Operation, Type> returned : returns.entrySet()) {
+      if (returned.getValue() == Type.ANY) { continue; }
+
+      Token name = returned.getKey().name;
+      report.add("[line " + name.line + "] '" + name.lexeme + "' returns " + returned.getValue());
+    }
+    report.add(proven + " of " + sites + " operator sites proven monomorphic.");
+    return report;
+  }
+
+
+  /// STATEMENTS //
+
+  @Override
+  public Void visitExpressionStatement(Statement.Expression statement) {
+    type(statement.expression);
+    return null;
+  }
+
+  @Override
+  public Void visitOperationStatement(Statement.Operation operation) {
+    declare(operation.name, operation, Type.ANY);
+    resolveOperation(operation);
+    return null;
+  }
+
+  @Override
+  public Void visitWhenStatement(Statement.When when) {
+    type(when.condition);
+    resolve(when.thenBranch);
+    for (Statement.Or or : when.orBranches) { resolve(or); }
+    if (when.elseBranch != null) { resolve(when.elseBranch); }
+    return null;
+  }
+
+  @Override
+  public Void visitOrStatement(Statement.Or or) {
+    type(or.condition);
+    resolve(or.orBranch);
+    return null;
+  }
+
+  @Override
+  public Void visitWhileStatement(Statement.While whilestmnt) {
+    type(whilestmnt.condition);
+    resolve(whilestmnt.body);
+    return null;
+  }
+
+  @Override
+  public Void visitAsStatement(Statement.As as) {
+    scopes.push(new Scope());
+    if (as.initializer != null) { resolve(as.initializer); }
+    type(as.condition);
+    resolve(as.body);
+    if (as.increment != null) {
+      counted = staysInt(as) ? (Express.Count)as.increment : null;
+      type(as.increment);
+      counted = null;
+    }
+    scopes.pop();
+    return null;
+  }
+
+  @Override
+  public Void visitBodyStatement(Statement.Body body) {
+    scopes.push(new Scope());
+    resolve(body.statements);
+    scopes.pop();
+    return null;
+  }
+
+  @Override
+  public Void visitReturnStatement(Statement.Return returnstmnt) {
+    returned(returnstmnt.value == null ? Type.ANY : type(returnstmnt.value));
+    return null;
+  }
+
+  @Override
+  public Void visitPrintStatement(Statement.Print print) {
+    type(print.expression);
+    return null;
+  }
+
+  @Override
+  public Void visitVariableStatement(Statement.Variable variable) {
+    Type type = variable.initial == null ? Type.ANY : type(variable.initial);
+    declare(variable.name, variable, type);
+    return null;
+  }
+
+  @Override
+  public Void visitObjStatement(Statement.Obj object) {
+    declare(object.name, object, Type.ANY);
+    for (Statement statement : object.body) {
+      if (statement instanceof Statement.Operation) {
+        resolveOperation((Statement.Operation)statement);
+      } else if (statement instanceof Statement.Variable && ((Statement.Variable)statement).initial != null) {
+        type(((Statement.Variable)statement).initial);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitEnumStatement(Statement.Enum enumstmnt) {
+    declare(enumstmnt.name, enumstmnt, Type.ANY);
+    return null;
+  }
+
+  @Override
+  public Void visitFormStatement(Statement.Form form) {
+    declare(form.name, form, Type.ANY);
+    for (Statement.Variable member : form.members) {
+      if (member.initial != null) { type(member.initial); }
+      declare(member.name, member, Type.ANY);
+    }
+    return null;
+  }
+
+
+  /// EXPRESSIONS //
+
+  @Override
+  public Type visitLiteralExpress(Express.Literal literally) { return Type.of(literally.value); }
+
+  @Override
+  public Type visitGroupingExpress(Express.Grouping parens) { return type(parens.expression); }
+
+  @Override
+  public Type visitVariableExpress(Express.Variable variable) { return read(lookup(variable.name.lexeme)); }
+
+  @Override
+  public Type visitSelfExpress(Express.Self self) { return Type.ANY; }
+
+  @Override
+  public Type visitParentVariableExpress(Express.ParentVariable parental) {
+    Object declaration = parent(parental.name.lexeme);
+    return declaration == null ? Type.ANY : read(declaration);
+  }
+
+  @Override
+  public Type visitGlobalVariableExpress(Express.GlobalVariable globally) { return read(globally.name.lexeme); }
+
+  @Override
+  public Type visitAssignExpress(Express.Assign assignment) {
+    Type type = type(assignment.value);
+    write(lookup(assignment.name.lexeme), type);
+    return type;
+  }
+
+  // a parent variable its scope only declares later poisons that declaration, and any global by the name
+  @Override
+  public Type visitParentAssignExpress(Express.ParentAssign assignment) {
+    Type type = type(assignment.value);
+    String name = assignment.target.name.lexeme;
+    Object declaration = parent(name);
+    if (declaration != null) {
+      write(declaration, type);
+    } else {
+      write(name, Type.ANY);
+      if (scopes.size() > 1) { scopes.get(scopes.size() - 2).poisoned.add(name); }
+    }
+    return type;
+  }
+
+  @Override
+  public Type visitGlobalAssignExpress(Express.GlobalAssign assignment) {
+    Type type = type(assignment.value);
+    write(assignment.name.lexeme, type);
+    return type;
+  }
+
+  @Override
+  public Type visitCountExpress(Express.Count count) {
+    Type identity = type(count.identifier);
+    Object declaration = lookup(count.name.lexeme);
+
+    count.proven = identity == Type.INT || identity == Type.DOUBLE;
+    count.operands = identity == Type.INT ? Operands.INTEGER : identity == Type.DOUBLE ? Operands.DOUBLE : Operands.UNSEEN;
+    site(count.operator, count.proven, identity, null);
+
+    if (count == counted) {
+      store(declaration, Type.INT);
+      return Type.INT;
+    }
+
+    Type type = identity == null ? null : identity == Type.DOUBLE ? Type.DOUBLE : Type.NUMBER;
+    write(declaration, type);
+    return type;
+  }
+
+  @Override
+  public Type visitUnaryExpress(Express.Unary unary) {
+    Type right = type(unary.right);
+    if (unary.operator.type != TokenType.MINUS) { return Type.BOOLEAN; }
+
+    unary.proven = right == Type.INT || right == Type.DOUBLE;
+    unary.operands = right == Type.INT ? Operands.INTEGER : right == Type.DOUBLE ? Operands.DOUBLE : Operands.UNSEEN;
+    site(unary.operator, unary.proven, right, null);
+    return right == Type.DOUBLE ? Type.DOUBLE : Type.NUMBER;
+  }
+
+  // comparisons are booleans and arithmetic is numbers, or an error; only '+' can make a string
+  @Override
+  public Type visitBinaryExpress(Express.Binary binary) {
+    Type left = type(binary.left), right = type(binary.right);
+    TokenType operator = binary.operator.type;
+
+    binary.operands = Operands.UNSEEN;
+    if (left == Type.INT && right == Type.INT) {
+      binary.operands = Operands.INTEGER;
+    } else if (left == Type.DOUBLE && right == Type.DOUBLE && operator != TokenType.EQEQ && operator != TokenType.INEQ) {
+      binary.operands = Operands.DOUBLE;
+    } else if (left == Type.STRING && right == Type.STRING && operator == TokenType.PLUS) {
+      binary.operands = Operands.STRING;
+    }
+    binary.proven = binary.operands != Operands.UNSEEN;
+    site(binary.operator, binary.proven, left, right);
+
+    switch (operator) {
+      case EQEQ: case INEQ: case GREATER: case GREAT_EQ: case LESSER: case LESS_EQ:
+        return Type.BOOLEAN;
+      case PLUS:
+        if (left == Type.STRING || right == Type.STRING) { return Type.STRING; }
+        if (left == null || right == null) { return null; }
+        if (!left.isNumber() || !right.isNumber()) { return Type.ANY; }
+        return left == Type.DOUBLE || right == Type.DOUBLE ? Type.DOUBLE : Type.NUMBER;
+      default:
+        return left == Type.DOUBLE || right == Type.DOUBLE ? Type.DOUBLE : Type.NUMBER;
+    }
+  }
+
+  @Override
+  public Type visitLogicalExpress(Express.Logical logical) {
+    return Type.join(type(logical.left), type(logical.right));
+  }
+
+  // a call through a variable only ever declared by an 'op' returns what that operation returns
+  @Override
+  public Type visitCallingExpress(Express.Calling call) {
+    type(call.called);
+    for (Express argument : call.args) { type(argument); }
+
+    if (!(call.called instanceof Express.Variable)) { return Type.ANY; }
+
+    Object declaration = lookup(((Express.Variable)call.called).name.lexeme);
+    Statement.Operation operation = operations.get(declaration);
+    if (operation == null || rewritten.contains(declaration) || isUndefined(declaration)) {
+      return Type.ANY;
+    }
+    return returns.get(operation);
+  }
+
+  @Override
+  public Type visitInvokeExpress(Express.Invoke invoke) {
+    type(invoke.object);
+    for (Express argument : invoke.args) { type(argument); }
+    return Type.ANY;
+  }
+
+  @Override
+  public Type visitGetPropsExpress(Express.GetProps props) {
+    type(props.object);
+    return Type.ANY;
+  }
+
+  @Override
+  public Type visitSetPropsExpress(Express.SetProps props) {
+    type(props.value);
+    type(props.object);
+    return Type.ANY;
+  }
+
+
+  /// HELPER FUNCTIONS //
+
+  private void resolve(Statement statement) { statement.accept(this); }
+
+  private void resolve(List<Statement> statements) {
+    for (Statement statement : statements) { resolve(statement); }
+  }
+
+  private Type type(Express express) {
+    Type type = express.accept(this);
+    express.type = type == null ? Type.ANY : type;
+    return type;
+  }
+
+  private void resolveOperation(Statement.Operation operation) {
+    Statement.Operation enclosing = current;
+    current = operation;
+
+    scopes.push(new Scope());
+    for (Token parameter : operation.params) { declare(parameter, parameter, Type.ANY); }
+    resolve(operation.body);
+    if (operation.body.isEmpty() || !(operation.body.get(operation.body.size() - 1) instanceof Statement.Return)) {
+      returned(Type.ANY);
+    }
+    scopes.pop();
+
+    current = enclosing;
+  }
+
+  // a global is declared by name; one declared twice is as good as assigned
+  private void declare(Token name, Object declaration, Type type) {
+    if (scopes.isEmpty()) {
+      if (!defined.add(name.lexeme)) { rewritten(name.lexeme); }
+      if (declaration instanceof Statement.Operation) { operations.put(name.lexeme, (Statement.Operation)declaration); }
+      store(name.lexeme, type);
+      return;
+    }
+
+    Scope scope = scopes.peek();
+    scope.names.put(name.lexeme, declaration);
+    if (declaration instanceof Statement.Operation) { operations.put(declaration, (Statement.Operation)declaration); }
+    store(declaration, scope.poisoned.contains(name.lexeme) ? Type.ANY : type);
+  }
+
+  // the declaration a name refers to from here, or the name itself for a global
+  private Object lookup(String name) {
+    for (int i = scopes.size() - 1; i >= 0; i--) {
+      Object declaration = scopes.get(i).names.get(name);
+      if (declaration != null) { return declaration; }
+    }
+    return name;
+  }
+
+  private Object parent(String name) {
+    return scopes.size() > 1 ? scopes.get(scopes.size() - 2).names.get(name) : null;
+  }
+
+  // a global read before any top-level statement has declared it may be none, or a native
+  private Type read(Object declaration) {
+    if (isUndefined(declaration)) { return Type.ANY; }
+    return types.get(declaration);
+  }
+
+  private boolean isUndefined(Object declaration) {
+    return declaration instanceof String && !defined.contains(declaration);
+  }
+
+  private void write(Object declaration, Type type) {
+    rewritten(declaration);
+    store(declaration, type);
+  }
+
+  private void store(Object declaration, Type type) {
+    Type joined = Type.join(types.get(declaration), type);
+    if (joined != types.get(declaration)) {
+      types.put(declaration, joined);
+      changed = true;
+    }
+  }
+
+  private void rewritten(Object declaration) {
+    if (rewritten.add(declaration)) { changed = true; }
+  }
+
+  private void returned(Type type) {
+    if (current == null) { return; }
+
+    Type joined = Type.join(returns.get(current), type);
+    if (joined != returns.get(current)) {
+      returns.put(current, joined);
+      changed = true;
+    }
+  }
+
+  // a counted loop's variable stays an int when it starts as one, nothing else assigns it, and it steps toward
+  // an int bound it stops short of
+  private boolean staysInt(Statement.As as) {
+    if (as.slot < 0) { return false; }
+
+    Statement.Variable counter = (Statement.Variable)as.initializer;
+    Express.Binary test = (Express.Binary)as.condition;
+    TokenType step = ((Express.Count)as.increment).operator.type;
+    boolean toward = (test.operator.type == TokenType.LESSER && step == TokenType.PLUSPLUS)
+        || (test.operator.type == TokenType.GREATER && step == TokenType.MINUSMINUS);
+
+    return toward && types.get(counter) == Type.INT && test.right.type == Type.INT && !rewritten.contains(counter);
+  }
+
+  private void site(Token operator, boolean monomorphic, Type left, Type right) {
+    sites++;
+    if (!monomorphic) { return; }
+
+    proven++;
+    report.add("[line " + operator.line + "] '" + operator.lexeme + "' on " + left + (right == null ? "" : ", " + right));
+  }
+}
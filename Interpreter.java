@@ -1,14 +1,23 @@
 package dev.alephpt.Dis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
-class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
+class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Return> {
   final Field globals = new Field();
   private Field fields = globals;
-  private final Map<Express, Integer> relatives = new HashMap<>();
+  final VM vm = new VM(this);
+  final JIT jit = new JIT(this);
+  private Engine engine = Engine.TREE;
+
+  enum Engine {
+    TREE,
+    BYTECODE,
+    CLOSURE
+  }
 
   Interpreter() {
     globals.define("clock", new DisCaller() {
@@ -18,18 +27,35 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
       @Override
       public Object call(Interpreter interpret,
                          List<Object> args) {
-        return (double)System.currentTimeMillis();
+        return call0(interpret);
       }
 
+      @Override
+      public Object call0(Interpreter interpret) { return (double)System.currentTimeMillis(); }
+
       @Override
       public String toString() { return "<Native Operation>"; }
     });
   }
 
+  void useEngine(Engine engine) {
+    this.engine = engine;
+  }
+
   void interpret(List<Statement> statements) {
     try {
+      if (engine == Engine.BYTECODE) {
+        vm.execute(new Compiler().compile(statements), globals);
+        return;
+      }
+
+      if (engine == Engine.CLOSURE) {
+        new ClosureCompiler(this).compile(statements).exec(globals);
+        return;
+      }
+
       for (Statement statement : statements) {
-        execute(statement);
+        if (execute(statement) != null) { return; }
       }
     } catch (RuntimeError error) {
       DisC.runtimeError(error);
@@ -67,36 +93,111 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
 
   @Override
   public Object visitCallingExpress(Express.Calling express) {
-    Object called = evaluate(express.called);
-    List<Object> args = new ArrayList<>();
-    for (Express argument : express.args) {
-      args.add(evaluate(argument));
+    return call(evaluate(express.called), express.args);
+  }
+
+  // obj::method->args runs the method with its receiver in the frame, without binding it first
+  @Override
+  public Object visitInvokeExpress(Express.Invoke express) {
+    Object receiver = evaluate(express.object);
+    DisOp method = receiver instanceof DisInstance ? ((DisInstance)receiver).method(express.name, express.cache) : null;
+    if (method == null) { return call(getProps(receiver, express.name, express.cache), express.args); }
+
+    List<Express> arguments = express.args;
+    if (arguments.size() != method.arity()) {
+      List<Object> args = new ArrayList<>();
+      for (Express argument : arguments) { args.add(evaluate(argument)); }
+      throw callError(method, args);
     }
 
-    if (!(called instanceof DisCaller)) {
-      throw new RuntimeArgsError(args, "Only Classes and Functions are Callable.");
+    Field frame = method.frame(receiver);
+    for (int i = 0; i < arguments.size(); i++) { frame.slots[i] = evaluate(arguments.get(i)); }
+    return method.run(this, frame);
+  }
+
+  private Object call(Object called, List<Express> arguments) {
+    switch (arguments.size()) {
+      case 0: {
+        DisCaller operation = callable(called, 0);
+        if (operation == null) { throw callError(called, new ArrayList<>()); }
+        return operation.call0(this);
+      }
+      case 1: {
+        Object a = evaluate(arguments.get(0));
+        DisCaller operation = callable(called, 1);
+        if (operation == null) { throw callError(called, Arrays.asList(a)); }
+        return operation.call1(this, a);
+      }
+      case 2: {
+        Object a = evaluate(arguments.get(0));
+        Object b = evaluate(arguments.get(1));
+        DisCaller operation = callable(called, 2);
+        if (operation == null) { throw callError(called, Arrays.asList(a, b)); }
+        return operation.call2(this, a, b);
+      }
+      case 3: {
+        Object a = evaluate(arguments.get(0));
+        Object b = evaluate(arguments.get(1));
+        Object c = evaluate(arguments.get(2));
+        DisCaller operation = callable(called, 3);
+        if (operation == null) { throw callError(called, Arrays.asList(a, b, c)); }
+        return operation.call3(this, a, b, c);
+      }
+      default: {
+        Object[] args = new Object[arguments.size()];
+        for (int i = 0; i < args.length; i++) { args[i] = evaluate(arguments.get(i)); }
+        DisCaller operation = callable(called, args.length);
+        if (operation == null) { throw callError(called, Arrays.asList(args)); }
+        return operation.callN(this, args);
+      }
     }
+  }
 
-    DisCaller operation = (DisCaller)called;
-  
-    if(args.size() != operation.arity()) {
-      throw new RuntimeArgsError(args, "Expected " + operation.arity() + " arguments.");
+  // the callee if it can take argc arguments, otherwise null; the argument list is only built for callError
+  static DisCaller callable(Object called, int argc) {
+    if (called instanceof DisCaller && ((DisCaller)called).arity() == argc) { return (DisCaller)called; }
+
+    return null;
+  }
+
+  static RuntimeArgsError callError(Object called, List<Object> args) {
+    if (!(called instanceof DisCaller)) {
+      return new RuntimeArgsError(args, "Only Classes and Functions are Callable.");
     }
 
-    return operation.call(this, args);
+    return new RuntimeArgsError(args, "Expected " + ((DisCaller)called).arity() + " arguments.");
   }
 
   @Override
   public Object visitUnaryExpress(Express.Unary express) {
     Object right = evaluate(express.right);
 
-    switch(express.operator.type) {
+    if (express.operator.type == TokenType.MINUS) {
+      switch (express.operands) {
+        case INTEGER:
+          if (express.proven || right instanceof Integer) { return Numbers.negate((int)(Integer)right); }
+          express.operands = Operands.GENERIC;
+          break;
+        case DOUBLE:
+          if (express.proven || right instanceof Double) { return -(Double)right; }
+          express.operands = Operands.GENERIC;
+          break;
+        case UNSEEN:
+          express.operands = Operands.of(right);
+          break;
+      }
+    }
+
+    return unary(express.operator, right);
+  }
+
+  static Object unary(Token operator, Object right) {
+    switch(operator.type) {
       case NOT:
         return !isTruthful(right);
       case MINUS:
-        checkNumberOperand(express.operator, right);
-        if(right instanceof Double) { return -((Number)right).doubleValue(); }
-        if(right instanceof Integer) { return -(Integer)right; }
+        checkNumberOperand(operator, right);
+        return Numbers.negate(right);
     }
 
     // unreachable
@@ -106,100 +207,157 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
   @Override
   public Object visitCountExpress(Express.Count express) {
     Object identity = evaluate(express.identifier);
-    Number value = 0;
+    Number value = countSpecialized(express, identity);
+    if (value == null) { value = count(express.operator, identity); }
 
-    switch(express.operator.type){
-      case PLUSPLUS:
-        if(identity instanceof Integer) {
-          value = (Integer)identity + 1;
-          break;
-        } else 
-        if (identity instanceof Double) {
-          value = (Double)identity + 1.0;
-          break;
-        } else {
-          throw new RuntimeError(express.operator, "must only be used with Numbers.");
-        }
-      case MINUSMINUS:
-        if(identity instanceof Integer) {
-          value = (Integer)identity - 1;
-          break;
-        } else 
-        if (identity instanceof Double) {
-          value = (Double)identity - 1.0;
-          break;       
-        } else {
-          throw new RuntimeError(express.operator, "must only be used with Numbers.");
-        }
-    }
-    fields.assign(express.name, value);
+    assignVar(express.name, express.depth, express.slot, value);
     return value;
   }
 
+  private static Number countSpecialized(Express.Count express, Object identity) {
+    int step = express.operator.type == TokenType.PLUSPLUS ? 1 : -1;
+
+    switch (express.operands) {
+      case INTEGER:
+        if (express.proven || identity instanceof Integer) { return (Number)Numbers.add((int)(Integer)identity, step); }
+        express.operands = Operands.GENERIC;
+        break;
+      case DOUBLE:
+        if (express.proven || identity instanceof Double) { return (Double)identity + step; }
+        express.operands = Operands.GENERIC;
+        break;
+      case UNSEEN:
+        express.operands = Operands.of(identity);
+        break;
+    }
+    return null;
+  }
+
+  static Number count(Token operator, Object identity) {
+    if (!Numbers.isNumber(identity)) { throw new RuntimeError(operator, "must only be used with Numbers."); }
+
+    return (Number)Numbers.add(identity, operator.type == TokenType.PLUSPLUS ? 1 : -1);
+  }
+
   @Override
   public Object visitBinaryExpress(Express.Binary express) {
     Object left = evaluate(express.left);
     Object right = evaluate(express.right);
 
-    switch(express.operator.type){
+    switch (express.operands) {
+      case INTEGER:
+        if (express.proven || left instanceof Integer && right instanceof Integer) {
+          return integers(express.operator, (Integer)left, (Integer)right);
+        }
+        express.operands = Operands.GENERIC;
+        break;
+      case DOUBLE:
+        if (express.proven || left instanceof Double && right instanceof Double) {
+          return doubles(express.operator, (Double)left, (Double)right);
+        }
+        express.operands = Operands.GENERIC;
+        break;
+      case STRING:
+        if (express.proven || left instanceof String && right instanceof String) {
+          return (String)left + (String)right;
+        }
+        express.operands = Operands.GENERIC;
+        break;
+      case UNSEEN:
+        express.operands = Operands.of(express.operator, left, right);
+        break;
+    }
+
+    return binary(express.operator, left, right);
+  }
+
+  // specialized paths, only taken once a node has seen both operands as the same number type, or the
+  // Inference pass proved they always are
+  private static Object integers(Token operator, int left, int right) {
+    switch(operator.type){
+      case INEQ:     return left != right;
+      case EQEQ:     return left == right;
+      case GREATER:  return left > right;
+      case GREAT_EQ: return left >= right;
+      case LESSER:   return left < right;
+      case LESS_EQ:  return left <= right;
+      case MINUS:    return Numbers.subtract(left, right);
+      case PLUS:     return Numbers.add(left, right);
+      case WHACK:    return Numbers.divide(operator, left, right);
+      case STAR:     return Numbers.multiply(left, right);
+      case POWER:    return Numbers.power(operator, left, right);
+    }
+    return null;
+  }
+
+  private static Object doubles(Token operator, double left, double right) {
+    switch(operator.type){
+      case GREATER:  return left > right;
+      case GREAT_EQ: return left >= right;
+      case LESSER:   return left < right;
+      case LESS_EQ:  return left <= right;
+      case MINUS:    return left - right;
+      case PLUS:     return left + right;
+      case WHACK:    return left / right;
+      case STAR:     return left * right;
+      case POWER:    return Math.pow(left, right);
+    }
+    return null;
+  }
+
+  static Object binary(Token operator, Object left, Object right) {
+    switch(operator.type){
       case INEQ:
         return !isEqual(left, right);
       case EQEQ:
         return isEqual(left, right);
       case GREATER:
-        checkNumberOperands(express.operator, left, right);
+        checkNumberOperands(operator, left, right);
         if(left instanceof Integer && right instanceof Integer) {
           return (Integer)left > (Integer)right; 
         }        
-        return ((Number)left).doubleValue() > ((Number)right).doubleValue(); 
+        return Numbers.greater(left, right);
       case GREAT_EQ:
-        checkNumberOperands(express.operator, left, right);
+        checkNumberOperands(operator, left, right);
         if(left instanceof Integer && right instanceof Integer) {
           return (Integer)left >= (Integer)right; 
         }
-        return ((Number)left).doubleValue() >= ((Number)right).doubleValue(); 
+        return Numbers.greaterOrEqual(left, right);
       case LESSER:
-        checkNumberOperands(express.operator, left, right);
+        checkNumberOperands(operator, left, right);
         if(left instanceof Integer && right instanceof Integer) {
           return (Integer)left < (Integer)right; 
         }        
-        return ((Number)left).doubleValue() < ((Number)right).doubleValue(); 
+        return Numbers.less(left, right);
       case LESS_EQ:
-        checkNumberOperands(express.operator, left, right);
+        checkNumberOperands(operator, left, right);
         if(left instanceof Integer && right instanceof Integer) {
           return (Integer)left <= (Integer)right; 
         } 
-        return ((Number)left).doubleValue() <= ((Number)right).doubleValue(); 
+        return Numbers.lessOrEqual(left, right);
       case MINUS:
-        checkNumberOperands(express.operator, left, right);
-        if(left instanceof Integer && right instanceof Integer) {
-          return (Integer)left - (Integer)right; 
-        } 
-        return ((Number)left).doubleValue() - ((Number)right).doubleValue(); 
+        checkNumberOperands(operator, left, right);
+        return Numbers.subtract(left, right);
       case PLUS:
         if (left instanceof Integer && right instanceof Integer) {
-              return (Integer)left + (Integer)right;
+          return Numbers.add((int)(Integer)left, (int)(Integer)right);
         }
         if (left instanceof String || right instanceof String) {
           return asString(left) + asString(right);
         }
-        if (left instanceof Double || right instanceof Double ||
-            left instanceof Integer || right instanceof Integer) {
-              return ((Number)left).doubleValue() + ((Number)right).doubleValue();
+        if (Numbers.isNumber(left) && Numbers.isNumber(right)) {
+          return Numbers.add(left, right);
         }
-        throw new RuntimeError(express.operator, "Operands must be of Numbers or Strings.");
+        throw new RuntimeError(operator, "Operands must be of Numbers or Strings.");
       case WHACK:
-        checkNumberOperands(express.operator, left, right);
-        if(left instanceof Integer && right instanceof Integer) {
-          return (Integer)left / (Integer)right; 
-        }
-        return ((Number)left).doubleValue() / ((Number)right).doubleValue(); 
+        checkNumberOperands(operator, left, right);
+        return Numbers.divide(operator, left, right);
       case STAR:
-        checkNumberOperands(express.operator, left, right);
-        if(left instanceof Integer && right instanceof Integer) {
-          return (Integer)left * (Integer)right; 
-        }
-        return ((Number)left).doubleValue() * ((Number)right).doubleValue(); 
+        checkNumberOperands(operator, left, right);
+        return Numbers.multiply(left, right);
+      case POWER:
+        checkNumberOperands(operator, left, right);
+        return Numbers.power(operator, left, right);
     }
     
     // unreachable
@@ -208,176 +366,251 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
 
   @Override
   public Object visitVariableExpress(Express.Variable express) {
-    return findVar(express.name, express);
+    return findVar(express.name, express.depth, express.slot);
   }
 
   @Override
   public Object visitParentVariableExpress(Express.ParentVariable express) {
-    return fields.parentGet(express.name);
+    return fields.parentGet(express.name, express.depth, express.slot);
   }
 
   @Override
   public Object visitGlobalVariableExpress(Express.GlobalVariable express) {
-    return fields.globalGet(express.name);
-    // globals.get(express.name);
+    return globals.globalGet(express.name, express.slot);
   }
 
   @Override
-  public Object visitAssignExpress(Express.Assign express) {
+  public Object visitParentAssignExpress(Express.ParentAssign express) {
     Object value = evaluate(express.value);
-    Integer distance = relatives.get(express);
+    fields.parentAssign(express.target.name, express.target.depth, express.target.slot, value);
+    return value;
+  }
 
-    if (distance != null) {
-      fields.assignAt(distance, express.name, value);
-    } else {
-      globals.assign(express.name, value);
-    }
+  @Override
+  public Object visitGlobalAssignExpress(Express.GlobalAssign express) {
+    Object value = evaluate(express.value);
+    globals.globalAssign(express.name, express.slot, value);
+    return value;
+  }
 
+  @Override
+  public Object visitAssignExpress(Express.Assign express) {
+    Object value = evaluate(express.value);
+    assignVar(express.name, express.depth, express.slot, value);
     return value;
   }
 
   @Override
   public Object visitGetPropsExpress(Express.GetProps props) {
-    Object object = evaluate(props.object);
-    if (object instanceof DisInstance) {
-      return ((DisInstance)object).get(props.name);
+    return getProps(evaluate(props.object), props.name, props.cache);
+  }
+
+  static Object getProps(Object object, Token name, PropCache cache) {
+    if (object instanceof Shaped) {
+      return ((Shaped)object).get(name, cache);
     }
     if (object instanceof DisSample) {
-      return ((DisSample)object).get(props.name);
+      return ((DisSample)object).get(name, cache);
+    }
+    if (object instanceof DisRow) {
+      return ((DisRow)object).get(name);
     }
-    if (object instanceof DisTaste) {
-      return ((DisTaste)object).get(props.name);
+    if (object instanceof DisTable) {
+      return ((DisTable)object).get(name);
+    }
+    if (object instanceof DisForm) {
+      return ((DisForm)object).get(name);
     }
 
-    throw new RuntimeError(props.name, "Property '" + props.name + "' unavailable. Make sure you are using a proper instance.");
+    throw new RuntimeError(name, "Property '" + name + "' unavailable. Make sure you are using a proper instance.");
   }
 
   @Override
   public Object visitSetPropsExpress(Express.SetProps props) {
     Object object = evaluate(props.object);
-    
+    checkProps(object, props.name);
+
+    Object value = evaluate(props.value);
+    setProps(object, props.name, value, props.cache);
+
+    return value;
+  }
+
+  static void checkProps(Object object, Token name) {
     if (!(object instanceof DisInstance) &&
         !(object instanceof DisSample) &&
-        !(object instanceof DisTaste)) {
-      throw new RuntimeError(props.name, "Only instances of Object, Enumeration, or Forms contain indexable fields");
+        !(object instanceof DisTaste) &&
+        !(object instanceof DisRow)) {
+      throw new RuntimeError(name, "Only instances of Object, Enumeration, or Forms contain indexable fields");
     }
+  }
 
-    Object value = evaluate(props.value);
-
-    if (object instanceof DisInstance) {
-      ((DisInstance)object).set(props.name, value);
+  static void setProps(Object object, Token name, Object value, PropCache cache) {
+    if (object instanceof Shaped) {
+      ((Shaped)object).set(name, value, cache);
     }
     if (object instanceof DisSample) {
-      ((DisSample)object).set(props.name, value);
+      ((DisSample)object).set(name, value);
     }
-    if (object instanceof DisTaste) {
-      ((DisTaste)object).set(props.name, value);
+    if (object instanceof DisRow) {
+      ((DisRow)object).set(name, value);
     }
-
-    return value;
   }
 
   @Override
   public Object visitSelfExpress(Express.Self self) {
-    return findVar(self.keyword, self);
+    return findVar(self.keyword, self.depth, self.slot);
   }
 
   @Override
-  public Void visitExpressionStatement(Statement.Expression statement) {
+  public Return visitExpressionStatement(Statement.Expression statement) {
     evaluate(statement.expression);
     return null;
   }
 
   @Override 
-  public Void visitOperationStatement(Statement.Operation statement) {
-    DisOp operation = new DisOp(statement, fields, false);
-    fields.define(statement.name.lexeme, operation);
+  public Return visitOperationStatement(Statement.Operation statement) {
+    DisOp operation = new DisOp(statement, DisOp.closure(statement, fields, globals), false);
+    declare(statement.slot, statement.name, operation);
 
     return null;
   }
 
   @Override
-  public Void visitWhenStatement(Statement.When statement) {
+  public Return visitWhenStatement(Statement.When statement) {
     boolean met = false;
     if (isTruthful(evaluate(statement.condition))) {
       met = true;
-      execute(statement.thenBranch);
+      Return returned = execute(statement.thenBranch);
+      if (returned != null) { return returned; }
     } else {
       for (Statement.Or orStatement : statement.orBranches) {
         if (isTruthful(evaluate(orStatement.condition)) && !met) {
           met = true;
-          execute(orStatement.orBranch);
+          Return returned = execute(orStatement.orBranch);
+          if (returned != null) { return returned; }
         }
       }
     }
     if (statement.elseBranch != null && !met) {
-      execute(statement.elseBranch);
+      return execute(statement.elseBranch);
     }
     return null;
   }
 
   @Override
-  public Void visitOrStatement(Statement.Or statement) {
+  public Return visitOrStatement(Statement.Or statement) {
     if (isTruthful(evaluate(statement.condition))) {
-      execute(statement.orBranch);
+      return execute(statement.orBranch);
     }
     return null;
   }
 
   @Override
-  public Void visitWhileStatement(Statement.While statement) {
-    while (isTruthful(evaluate(statement.condition))) { execute(statement.body); }
+  public Return visitWhileStatement(Statement.While statement) {
+    while (isTruthful(evaluate(statement.condition))) {
+      Return returned = execute(statement.body);
+      if (returned != null) { return returned; }
+    }
     return null;
   }
 
   @Override
-  public Void visitPrintStatement(Statement.Print statement) {
+  public Return visitAsStatement(Statement.As statement) {
+    Field previous = this.fields;
+
+    try {
+      this.fields = new Field(previous, statement.size);
+      if (statement.initializer != null) { execute(statement.initializer); }
+
+      while (statement.slot >= 0 ? counting(statement) : isTruthful(evaluate(statement.condition))) {
+        Return returned = execute(statement.body);
+        if (returned != null) { return returned; }
+
+        if (statement.slot < 0 || !fields.count(statement.slot, step(statement))) {
+          if (statement.increment != null) { evaluate(statement.increment); }
+        }
+      }
+      return null;
+    } finally { this.fields = previous; }
+  }
+
+  // a counted loop compares its counter to an int bound as ints, and steps it unboxed in its slot
+  private boolean counting(Statement.As statement) {
+    Express.Binary test = (Express.Binary)statement.condition;
+    Object bound = evaluate(test.right);
+    if (!(bound instanceof Integer) || !fields.holdsInt(statement.slot)) {
+      return isTruthful(binary(test.operator, fields.at(statement.slot), bound));
+    }
+
+    int counter = fields.intAt(statement.slot), limit = (Integer)bound;
+    switch (test.operator.type) {
+      case LESSER:  return counter < limit;
+      case LESS_EQ: return counter <= limit;
+      case GREATER: return counter > limit;
+      default:      return counter >= limit;
+    }
+  }
+
+  private static int step(Statement.As statement) {
+    return ((Express.Count)statement.increment).operator.type == TokenType.PLUSPLUS ? 1 : -1;
+  }
+
+  @Override
+  public Return visitPrintStatement(Statement.Print statement) {
     Object value = evaluate(statement.expression);
     System.out.println(asString(value));
     return null;
   }
   
   @Override
-  public Void visitReturnStatement(Statement.Return statement) {
+  public Return visitReturnStatement(Statement.Return statement) {
+    if (statement.tail != null) {
+      Express.Calling call = (Express.Calling)statement.value;
+      Object called = evaluate(call.called);
+
+      if (called instanceof DisOp && ((DisOp)called).declaration == statement.tail) {
+        Object[] args = new Object[call.args.size()];
+        for (int i = 0; i < args.length; i++) { args[i] = evaluate(call.args.get(i)); }
+        return new TailCall((DisOp)called, args);
+      }
+    }
+
     Object value = null;
     if(statement.value != null) { value = evaluate(statement.value); } 
-    throw new Return(value);
+    return new Return(value);
   }
 
   @Override
-  public Void visitObjStatement(Statement.Obj object) {
-    fields.define(object.name.lexeme, null);
+  public Return visitObjStatement(Statement.Obj object) {
+    declare(object.slot, object.name, null);
 
     Map<String, DisOp> methods = new HashMap<>();
-    for (Statement.Operation method : object.body) {
-      DisOp op = new DisOp(method, fields, method.name.lexeme.equals("init"));
+    for (Statement statement : object.body) {
+      if (!(statement instanceof Statement.Operation)) { continue; }
+
+      Statement.Operation method = (Statement.Operation)statement;
+      DisOp op = new DisOp(method, DisOp.closure(method, fields, globals), method.name.lexeme.equals("pilot"));
       methods.put(method.name.lexeme, op);
     }
 
-    DisObj obj = new DisObj(object.name.lexeme, methods);
-    fields.assign(object.name, obj);
+    DisObj obj = new DisObj(object.name.lexeme, methods, object.layout);
+    declare(object.slot, object.name, obj);
     return null;
   }
 
   @Override
-  public Void visitEnumStatement(Statement.Enum enumstmnt) {
-    fields.define(enumstmnt.name.lexeme, null);
-    Integer i = 0;
-
-    Map<String, Integer> elements = new HashMap<>();
-    for (Express.Variable element : enumstmnt.elements) {
-      elements.put(element.name.lexeme, i);
-      i++;
-    }
+  public Return visitEnumStatement(Statement.Enum enumstmnt) {
+    declare(enumstmnt.slot, enumstmnt.name, null);
 
-    DisEnum enums = new DisEnum(enumstmnt.name.lexeme, elements);
-    fields.assign(enumstmnt.name, enums);
+    DisEnum enums = new DisEnum(enumstmnt.name.lexeme, DisEnum.namesOf(enumstmnt.elements));
+    declare(enumstmnt.slot, enumstmnt.name, enums);
     return null;
   }
 
   @Override
-  public Void visitFormStatement(Statement.Form form) {
-    fields.define(form.name.lexeme, null);
+  public Return visitFormStatement(Statement.Form form) {
+    declare(form.slot, form.name, null);
 
     Map<String, Object> members = new HashMap<>();
     for (Statement.Variable member : form.members) {
@@ -386,38 +619,38 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
     }
 
     DisForm formt = new DisForm(form.name.lexeme, members);
-    fields.assign(form.name, formt);
+    declare(form.slot, form.name, formt);
     return null;
   }
 
   @Override
-  public Void visitBodyStatement(Statement.Body statement) {
-    executeBlock(statement.statements, new Field(fields));
-    return null;
+  public Return visitBodyStatement(Statement.Body statement) {
+    return executeBlock(statement.statements, statement.scoped ? new Field(fields, statement.size) : fields);
   }
 
   @Override
-  public Void visitVariableStatement(Statement.Variable statement) {
+  public Return visitVariableStatement(Statement.Variable statement) {
     Object value = null;
     if (statement.initial != null ) { value = evaluate(statement.initial); }
 
-    fields.define(statement.name.lexeme, value);
+    declare(statement.slot, statement.name, value);
     return null;
   }
 
-  private boolean isTruthful(Object object) {
+  static boolean isTruthful(Object object) {
     if (object == null /*|| object.length < 1*/) { return false; }
     if (object instanceof Boolean) { return (boolean)object; }
     return true;
   }
 
-  private boolean isEqual(Object a, Object b){
+  static boolean isEqual(Object a, Object b){
     if (a == null && b == null) { return true; }
     if (a == null) { return false; }
+    if (Numbers.isNumber(a) && Numbers.isNumber(b)) { return Numbers.equal(a, b); }
     return a.equals(b);
   }
 
-  private String asString(Object object) {
+  static String asString(Object object) {
     if (object == null) { return "none"; }
 
     if (object instanceof Double || object instanceof Integer) {
@@ -431,47 +664,62 @@ class Interpreter implements Express.Visitor<Object>, Statement.Visitor<Void> {
     return object.toString();
   }
 
-  void resolve(Express express, int depth) {
-    relatives.put(express, depth);
-  }
-
   private Object evaluate(Express express) {
     return express.accept(this);
   }
 
-  private void execute(Statement statement) {
-    statement.accept(this);
+  private Return execute(Statement statement) {
+    return statement.accept(this);
+  }
+
+  private Object findVar(Token name, int depth, int slot) {
+    if(depth >= 0){
+      return fields.getAt(depth, slot);
+    } else {
+      return globals.get(name, slot);
+    }
   }
 
-  private Object findVar(Token name, Express express) {
-    Integer distance = relatives.get(express);
+  private void assignVar(Token name, int depth, int slot, Object value) {
+    if (depth >= 0) {
+      fields.assignAt(depth, slot, value);
+    } else {
+      globals.assign(name, slot, value);
+    }
+  }
 
-    if(distance != null){
-      return fields.getAt(distance, name.lexeme);
+  // names declared at the top level have no slot and live in the globals by name
+  private void declare(int slot, Token name, Object value) {
+    if (slot < 0) {
+      globals.define(name.lexeme, value);
     } else {
-      return globals.get(name);
+      fields.put(slot, value);
     }
   }
 
-  void executeBlock(List<Statement> statements, Field field) {
+  // a Return once one is executed, null when the block completes normally
+  Return executeBlock(List<Statement> statements, Field field) {
     Field previous = this.fields;
 
     try {
       this.fields = field;
-      for (Statement statement : statements) { execute(statement); }
+      for (Statement statement : statements) {
+        Return returned = execute(statement);
+        if (returned != null) { return returned; }
+      }
+      return null;
     } finally { this.fields = previous; } 
   }
 
-  private void checkNumberOperand(Token operator, Object operand) {
-    if (operand instanceof Double || operand instanceof Integer) {
+  private static void checkNumberOperand(Token operator, Object operand) {
+    if (Numbers.isNumber(operand)) {
       return;
     }
     throw new RuntimeError(operator, "Operand must be a number.");
   }
 
-  private void checkNumberOperands(Token operator, Object left, Object right) {
-    if ((left instanceof Integer || left instanceof Double) && 
-        (right instanceof Integer || right instanceof Double)) { 
+  private static void checkNumberOperands(Token operator, Object left, Object right) {
+    if (Numbers.isNumber(left) && Numbers.isNumber(right)) { 
       return; 
     }
     throw new RuntimeError(operator, "Operands must be numbers.");
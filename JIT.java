@@ -0,0 +1,35 @@
+package dev.alephpt.Dis;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// promotes operations the tree walker calls often to the closure tier, compiled off the main thread;
+// -Ddis.jit.report says which ones failed to compile
+class JIT {
+  private static final boolean report = Boolean.getBoolean("dis.jit.report");
+  private final Interpreter interpreter;
+  private final int threshold = Integer.getInteger("dis.jit.threshold", 1000);
+  private final ExecutorService compiler = Executors.newSingleThreadExecutor(task -> {
+    Thread thread = new Thread(task, "dis-jit");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  JIT(Interpreter interpreter) {
+    this.interpreter = interpreter;
+  }
+
+  void count(Statement.Operation declaration) {
+    if (threshold <= 0 || ++declaration.calls != threshold) { return; }
+    compiler.execute(() -> compile(declaration));
+  }
+
+  // only this declaration is published; the operations it declares are counted on their own calls
+  private void compile(Statement.Operation declaration) {
+    try {
+      declaration.compiled = new ClosureCompiler(interpreter, false).compile(declaration.body);
+    } catch (RuntimeException | StackOverflowError error) {
+      if (report) { System.err.println("jit: '" + declaration.name.lexeme + "' stays on the tree walker, " + error); }
+    }
+  }
+}
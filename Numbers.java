@@ -0,0 +1,222 @@
+package dev.alephpt.Dis;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+// the numeric tower: whole numbers are ints until a result overflows, then longs, then BigIntegers,
+// and always held in the narrowest of those that fits; doubles sit beside them and win any mixed operation
+final class Numbers {
+  private Numbers() {}
+
+  static boolean isNumber(Object value) {
+    return value instanceof Integer || value instanceof Double || value instanceof Long || value instanceof BigInteger;
+  }
+
+  static Object narrow(long value) {
+    return value == (int)value ? (Object)(int)value : (Object)value;
+  }
+
+  static Object narrow(BigInteger value) {
+    if (value.bitLength() < 32) { return value.intValue(); }
+    if (value.bitLength() < 64) { return value.longValue(); }
+    return value;
+  }
+
+
+  /// INT FAST PATHS //
+
+  static Object add(int left, int right) {
+    int sum = left + right;
+    if (((left ^ sum) & (right ^ sum)) < 0) { return (long)left + right; }
+    return sum;
+  }
+
+  static Object subtract(int left, int right) {
+    int difference = left - right;
+    if (((left ^ right) & (left ^ difference)) < 0) { return (long)left - right; }
+    return difference;
+  }
+
+  static Object multiply(int left, int right) { return narrow((long)left * right); }
+
+  static Object divide(Token operator, int left, int right) {
+    if (right == 0) { throw new RuntimeError(operator, "Division by zero."); }
+    if (right == -1) { return narrow(-(long)left); }
+    return left / right;
+  }
+
+  static Object negate(int value) {
+    if (value == Integer.MIN_VALUE) { return -(long)value; }
+    return -value;
+  }
+
+
+  /// TOWER //
+
+  // every operation takes two numbers, already checked by the caller
+
+  static Object add(Object left, Object right) {
+    if (left instanceof Integer && right instanceof Integer) { return add((int)(Integer)left, (int)(Integer)right); }
+    if (left instanceof Double || right instanceof Double) { return real(left) + real(right); }
+    if (!(left instanceof BigInteger || right instanceof BigInteger)) {
+      long l = ((Number)left).longValue(), r = ((Number)right).longValue();
+      long sum = l + r;
+      if (((l ^ sum) & (r ^ sum)) >= 0) { return narrow(sum); }
+    }
+    return narrow(big(left).add(big(right)));
+  }
+
+  static Object subtract(Object left, Object right) {
+    if (left instanceof Integer && right instanceof Integer) { return subtract((int)(Integer)left, (int)(Integer)right); }
+    if (left instanceof Double || right instanceof Double) { return real(left) - real(right); }
+    if (!(left instanceof BigInteger || right instanceof BigInteger)) {
+      long l = ((Number)left).longValue(), r = ((Number)right).longValue();
+      long difference = l - r;
+      if (((l ^ r) & (l ^ difference)) >= 0) { return narrow(difference); }
+    }
+    return narrow(big(left).subtract(big(right)));
+  }
+
+  static Object multiply(Object left, Object right) {
+    if (left instanceof Integer && right instanceof Integer) { return multiply((int)(Integer)left, (int)(Integer)right); }
+    if (left instanceof Double || right instanceof Double) { return real(left) * real(right); }
+    if (!(left instanceof BigInteger || right instanceof BigInteger)) {
+      long l = ((Number)left).longValue(), r = ((Number)right).longValue();
+      long high = Math.multiplyHigh(l, r), product = l * r;
+      if ((high == 0 && product >= 0) || (high == -1 && product < 0)) { return narrow(product); }
+    }
+    return narrow(big(left).multiply(big(right)));
+  }
+
+  // whole numbers divide toward zero, as ints always have, and never by zero; doubles keep their infinities
+  static Object divide(Token operator, Object left, Object right) {
+    if (left instanceof Integer && right instanceof Integer) {
+      return divide(operator, (int)(Integer)left, (int)(Integer)right);
+    }
+    if (left instanceof Double || right instanceof Double) { return real(left) / real(right); }
+    if (big(right).signum() == 0) { throw new RuntimeError(operator, "Division by zero."); }
+    if (!(left instanceof BigInteger || right instanceof BigInteger)) {
+      long l = ((Number)left).longValue(), r = ((Number)right).longValue();
+      if (l != Long.MIN_VALUE || r != -1) { return narrow(l / r); }
+    }
+    return narrow(big(left).divide(big(right)));
+  }
+
+  static Object negate(Object value) {
+    if (value instanceof Integer) { return negate((int)(Integer)value); }
+    if (value instanceof Double) { return -(Double)value; }
+    if (value instanceof Long && (Long)value != Long.MIN_VALUE) { return -(Long)value; }
+    return narrow(big(value).negate());
+  }
+
+  // a whole power of a whole number stays whole, by squaring; anything else is a double
+  static Object power(Token operator, Object base, Object exponent) {
+    if (base instanceof Double || exponent instanceof Double || big(exponent).signum() < 0) {
+      return Math.pow(real(base), real(exponent));
+    }
+
+    BigInteger b = big(base);
+    if (b.abs().compareTo(BigInteger.ONE) <= 0) {
+      boolean odd = big(exponent).testBit(0);
+      if (b.signum() == 0) { return big(exponent).signum() == 0 ? 1 : 0; }
+      return b.signum() > 0 || odd ? narrow(b) : 1;
+    }
+    if (!(exponent instanceof Integer)) {
+      throw new RuntimeError(operator, "Exponent is too large for a whole number result.");
+    }
+
+    int e = (Integer)exponent;
+    if (base instanceof Integer || base instanceof Long) {
+      long result = 1, square = ((Number)base).longValue();
+      try {
+        while (true) {
+          if ((e & 1) != 0) { result = Math.multiplyExact(result, square); }
+          e >>= 1;
+          if (e == 0) { return narrow(result); }
+          square = Math.multiplyExact(square, square);
+        }
+      } catch (ArithmeticException overflow) {
+        e = (Integer)exponent;
+      }
+    }
+    return narrow(b.pow(e));
+  }
+
+  // whole numbers only; doubles go through exact, after NaN is left unordered
+  static int compare(Object left, Object right) {
+    if (!(left instanceof BigInteger || right instanceof BigInteger)) {
+      return Long.compare(((Number)left).longValue(), ((Number)right).longValue());
+    }
+    return big(left).compareTo(big(right));
+  }
+
+  // a double and a whole number compare exactly, as they do in equal, so the three relations always agree
+  static boolean less(Object left, Object right) {
+    if (left instanceof Double || right instanceof Double) { return !unordered(left, right) && exact(left, right) < 0; }
+    return compare(left, right) < 0;
+  }
+
+  static boolean lessOrEqual(Object left, Object right) {
+    if (left instanceof Double || right instanceof Double) { return !unordered(left, right) && exact(left, right) <= 0; }
+    return compare(left, right) <= 0;
+  }
+
+  static boolean greater(Object left, Object right) {
+    if (left instanceof Double || right instanceof Double) { return !unordered(left, right) && exact(left, right) > 0; }
+    return compare(left, right) > 0;
+  }
+
+  static boolean greaterOrEqual(Object left, Object right) {
+    if (left instanceof Double || right instanceof Double) { return !unordered(left, right) && exact(left, right) >= 0; }
+    return compare(left, right) >= 0;
+  }
+
+  // a whole number equals a double holding exactly its value; two doubles keep Double.equals
+  static boolean equal(Object left, Object right) {
+    if (left instanceof Double && right instanceof Double) { return left.equals(right); }
+    if (left instanceof Double || right instanceof Double) {
+      double real = left instanceof Double ? (Double)left : (Double)right;
+      Object whole = left instanceof Double ? right : left;
+      if (Double.isInfinite(real) || Double.isNaN(real)) { return false; }
+      if (whole instanceof Integer) { return (Integer)whole == real; }
+      return new BigDecimal(real).compareTo(new BigDecimal(big(whole))) == 0;
+    }
+    return compare(left, right) == 0;
+  }
+
+
+  /// HELPER FUNCTIONS //
+
+  private static double real(Object value) { return ((Number)value).doubleValue(); }
+
+  private static boolean unordered(Object left, Object right) {
+    return left instanceof Double && ((Double)left).isNaN() || right instanceof Double && ((Double)right).isNaN();
+  }
+
+  // at least one side a double and neither NaN; whole numbers within 2^53 convert to a double exactly,
+  // and beyond that both sides are compared as decimals, which round nothing
+  private static int exact(Object left, Object right) {
+    if (fits(left) && fits(right)) {
+      double l = real(left), r = real(right);
+      return l < r ? -1 : l > r ? 1 : 0;
+    }
+
+    double real = left instanceof Double ? (Double)left : (Double)right;
+    int sign = left instanceof Double ? 1 : -1;
+    if (Double.isInfinite(real)) { return real > 0 ? sign : -sign; }
+
+    Object whole = left instanceof Double ? right : left;
+    return sign * new BigDecimal(real).compareTo(new BigDecimal(big(whole)));
+  }
+
+  private static boolean fits(Object value) {
+    if (value instanceof Double || value instanceof Integer) { return true; }
+    if (value instanceof Long) { return (Long)value >= -(1L << 53) && (Long)value <= 1L << 53; }
+    return false;
+  }
+
+  private static BigInteger big(Object value) {
+    if (value instanceof BigInteger) { return (BigInteger)value; }
+    return BigInteger.valueOf(((Number)value).longValue());
+  }
+}
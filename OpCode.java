@@ -0,0 +1,78 @@
+package dev.alephpt.Dis;
+
+final class OpCode {
+  private OpCode() {}
+
+  // an operator's operands are each either on the stack, a local as depth << 16 | slot, a slot of the running
+  // call's frame on the VM stack as FRAMED + slot, a global as GLOBAL + index, or a constant as -2 - k; rather
+  // than pushing its result, a comparison given a target jumps there when false, or to -2 - target when true, and
+  // arithmetic given a target stores into that local
+  static final int STACKED         = -1;
+  static final int FRAMED          = 0x7FFF << 16;
+  static final int GLOBAL          = Integer.MIN_VALUE;
+
+  // Values
+  static final int CONSTANT        = 0;   // k
+  static final int NONE            = 1;
+  static final int TRUE            = 2;
+  static final int FALSE           = 3;
+  static final int POP             = 4;
+
+  // Variables
+  static final int GET_LOCAL       = 5;   // depth, slot
+  static final int SET_LOCAL       = 6;   // depth, slot
+  static final int GET_SLOT        = 7;   // slot, in the running frame
+  static final int SET_SLOT        = 8;   // slot, in the running frame
+  static final int GET_GLOBAL      = 9;   // k, index
+  static final int SET_GLOBAL      = 10;  // k, index
+  static final int GET_PARENT      = 11;  // k, depth, slot
+  static final int SET_PARENT      = 12;  // k, depth, slot
+  static final int GET_ROOT        = 13;  // k, index
+  static final int SET_ROOT        = 14;  // k, index
+  static final int DEFINE          = 15;  // k
+  static final int STORE           = 16;  // local, value
+  static final int GET_FRAME       = 17;  // slot, on the VM stack
+  static final int SET_FRAME       = 18;  // slot, on the VM stack
+
+  // Operators
+  static final int EQUAL           = 19;  // left, right, target
+  static final int NOT_EQUAL       = 20;  // left, right, target
+  static final int GREATER         = 21;  // left, right, target
+  static final int GREAT_EQ        = 22;  // left, right, target
+  static final int LESSER          = 23;  // left, right, target
+  static final int LESS_EQ         = 24;  // left, right, target
+  static final int ADD             = 25;  // left, right, target
+  static final int SUBTRACT        = 26;  // left, right, target
+  static final int MULTIPLY        = 27;  // left, right, target
+  static final int DIVIDE          = 28;  // left, right, target
+  static final int POWER           = 29;
+  static final int NOT             = 30;
+  static final int NEGATE          = 31;
+  static final int INCREMENT       = 32;
+  static final int DECREMENT       = 33;
+  static final int STEP            = 34;  // local, step, leaving nothing
+
+  // Control Flow
+  static final int LOOP            = 35;  // local, step, then the comparison ending a counted loop
+  static final int JUMP            = 36;  // target
+  static final int JUMP_IF_FALSE   = 37;  // target
+  static final int JUMP_IF_TRUE_OR = 38;  // target
+  static final int JUMP_IF_FALSE_OR = 39; // target
+  static final int CALL            = 40;  // argc
+  static final int TAIL_CALL       = 41;  // argc, self call in return position
+  static final int INVOKE          = 42;  // argc, after GET_METHOD
+  static final int RETURN          = 43;  // value
+  static final int FALL_THROUGH    = 44;
+  static final int PUSH_SCOPE      = 45;  // size
+  static final int POP_SCOPE       = 46;
+
+  // Objects
+  static final int GET_PROPS       = 47;  // k, cache
+  static final int SET_PROPS       = 48;  // k, cache
+  static final int GET_METHOD      = 49;  // k, cache
+  static final int OPERATION       = 50;  // k
+  static final int OBJ             = 51;  // k, methods
+  static final int ENUM            = 52;  // k
+  static final int FORM            = 53;  // k, members
+  static final int PRINT           = 54;
+}
@@ -0,0 +1,29 @@
+package dev.alephpt.Dis;
+
+// the operand types an operator node has specialized on after its first evaluation
+enum Operands {
+  UNSEEN,
+  INTEGER,
+  DOUBLE,
+  STRING,
+  GENERIC;
+
+  static Operands of(Object operand) {
+    if (operand instanceof Integer) { return INTEGER; }
+    if (operand instanceof Double) { return DOUBLE; }
+    return GENERIC;
+  }
+
+  static Operands of(Token operator, Object left, Object right) {
+    if (left instanceof Integer && right instanceof Integer) { return INTEGER; }
+
+    // equality on doubles follows Double.equals, which the primitive path does not
+    if (left instanceof Double && right instanceof Double &&
+        operator.type != TokenType.EQEQ && operator.type != TokenType.INEQ) { 
+      return DOUBLE; 
+    }
+
+    if (left instanceof String && right instanceof String && operator.type == TokenType.PLUS) { return STRING; }
+    return GENERIC;
+  }
+}
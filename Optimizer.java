@@ -0,0 +1,819 @@
+package dev.alephpt.Dis;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+import java.util.function.Supplier;
+
+// simplifies the tree between the Resolver and the engines; every pass rewrites the statements in place,
+// rebuilding only the nodes whose children changed and carrying over what the Resolver wrote on them,
+// and each can be turned off with -Ddis.opt.<name>=false
+class Optimizer {
+  private final List<Pass> passes = Arrays.asList(new Fold(), new Prune(), new Empty(), new Simplify(), new Hoist());
+
+  // runs the passes that need proven types, or the ones that do not, and reports what each did
+  List<String> optimize(List<Statement> statements, boolean typed) {
+    List<String> report = new ArrayList<>();
+
+    for (Pass pass : passes) {
+      if (pass.typed != typed || !Boolean.parseBoolean(System.getProperty("dis.opt." + pass.name, "true"))) {
+        continue;
+      }
+
+      int before = count(statements);
+      pass.run(statements);
+      report.add(pass.name + ": " + pass.summary(before - count(statements)));
+    }
+    return report;
+  }
+
+  private static int count(List<Statement> statements) {
+    Pass counter = new Pass("count", false) {};
+    counter.rewrite(statements);
+    return counter.nodes;
+  }
+
+
+  /// PASSES //
+
+  // a literal operator is worked out once, by the interpreter's own operator helpers so that it cannot disagree
+  // with running; whatever fails is left in place to fail at run time, and so is any whole number too large to be
+  // worth working out for code that may never run
+  private static final class Fold extends Pass {
+    private static final int BITS = 4096; // the largest whole number folded
+
+    Fold() { super("fold", false); }
+
+    @Override
+    public Express visitUnaryExpress(Express.Unary express) {
+      Express.Unary unary = (Express.Unary)super.visitUnaryExpress(express);
+      if (!(unary.right instanceof Express.Literal)) { return unary; }
+
+      Object right = ((Express.Literal)unary.right).value;
+      return fold(unary, () -> Interpreter.unary(unary.operator, right));
+    }
+
+    @Override
+    public Express visitBinaryExpress(Express.Binary express) {
+      Express.Binary binary = (Express.Binary)super.visitBinaryExpress(express);
+      if (!(binary.left instanceof Express.Literal && binary.right instanceof Express.Literal)) { return binary; }
+
+      Object left = ((Express.Literal)binary.left).value, right = ((Express.Literal)binary.right).value;
+      if (binary.operator.type == TokenType.POWER && !small(left, right)) { return binary; }
+      return fold(binary, () -> Interpreter.binary(binary.operator, left, right));
+    }
+
+    @Override
+    public Express visitLogicalExpress(Express.Logical express) {
+      Express.Logical logical = (Express.Logical)super.visitLogicalExpress(express);
+      if (!(logical.left instanceof Express.Literal)) { return logical; }
+
+      boolean or = logical.operator.type == TokenType.OR_OP;
+      return truthful(logical.left) == or ? logical.left : logical.right;
+    }
+
+    @Override
+    public Express visitGroupingExpress(Express.Grouping express) {
+      Express.Grouping grouping = (Express.Grouping)super.visitGroupingExpress(express);
+      return grouping.expression instanceof Express.Literal ? grouping.expression : grouping;
+    }
+
+    private static Express fold(Express express, Supplier<Object> operation) {
+      try {
+        Object value = operation.get();
+        if (value instanceof BigInteger && ((BigInteger)value).bitLength() > BITS) { return express; }
+        return new Express.Literal(value);
+      } catch (RuntimeException failed) {
+        return express;
+      }
+    }
+
+    // a whole power takes about as many bits as its base times its exponent, so it is sized before it is made
+    private static boolean small(Object base, Object exponent) {
+      if (base instanceof Double || exponent instanceof Double) { return true; }
+      if (!(base instanceof Integer || base instanceof Long) || !(exponent instanceof Integer)) { return false; }
+
+      long bits = 64 - Long.numberOfLeadingZeros(Math.abs(((Number)base).longValue()));
+      return bits * Math.max((Integer)exponent, 0) <= BITS;
+    }
+  }
+
+  // a branch behind a literal condition is either the only one that can run or one that never will;
+  // 'or' conditions all run when the first fails, so only literal ones are dropped
+  private static final class Prune extends Pass {
+    Prune() { super("prune", false); }
+
+    @Override
+    public Statement visitWhenStatement(Statement.When statement) {
+      Statement.When when = (Statement.When)super.visitWhenStatement(statement);
+      when.orBranches.removeIf(or -> or.condition instanceof Express.Literal && !truthful(or.condition));
+
+      if (!(when.condition instanceof Express.Literal)) { return when; }
+      if (truthful(when.condition)) { return when.thenBranch; }
+
+      for (Statement.Or or : when.orBranches) {
+        if (!(or.condition instanceof Express.Literal)) { return when; }
+      }
+      return when.orBranches.isEmpty() ? when.elseBranch : when.orBranches.get(0).orBranch;
+    }
+
+    @Override
+    public Statement visitWhileStatement(Statement.While statement) {
+      Statement.While loop = (Statement.While)super.visitWhileStatement(statement);
+      return loop.condition instanceof Express.Literal && !truthful(loop.condition) ? null : loop;
+    }
+  }
+
+  // a body with nothing in it declares nothing either, so dropping it from a list leaves every slot in place
+  private static final class Empty extends Pass {
+    Empty() { super("empty", false); }
+
+    @Override
+    boolean dead(Statement statement) {
+      return statement == null
+          || (statement instanceof Statement.Body && ((Statement.Body)statement).statements.isEmpty());
+    }
+  }
+
+  // identities that hold for every value Inference proved: adding zero keeps an int, but would turn a
+  // double's -0.0 into 0.0, while multiplying or dividing by one keeps any number
+  private static final class Simplify extends Pass {
+    Simplify() { super("simplify", true); }
+
+    @Override
+    public Express visitBinaryExpress(Express.Binary express) {
+      Express.Binary binary = (Express.Binary)super.visitBinaryExpress(express);
+      Express left = binary.left, right = binary.right;
+
+      switch (binary.operator.type) {
+        case PLUS:
+          if (left.type == Type.INT && is(right, 0)) { return left; }
+          if (right.type == Type.INT && is(left, 0)) { return right; }
+          break;
+        case MINUS:
+          if (left.type == Type.INT && is(right, 0)) { return left; }
+          break;
+        case STAR:
+          if (left.type.isNumber() && is(right, 1)) { return left; }
+          if (right.type.isNumber() && is(left, 1)) { return right; }
+          break;
+        case WHACK:
+          if (left.type.isNumber() && is(right, 1)) { return left; }
+          break;
+        default:
+          break;
+      }
+      return binary;
+    }
+
+    private static boolean is(Express express, int value) {
+      return express instanceof Express.Literal && Integer.valueOf(value).equals(((Express.Literal)express).value);
+    }
+  }
+
+  // loop-invariant code motion: what a loop cannot change is worked out once, into a temporary in the frame the
+  // loop starts from; a condition always runs at least once, so anything without effects that it evaluates
+  // before its first effect moves out of it, while a body may never run, so only proven arithmetic that cannot
+  // fail moves out of that; calls always stay, as nothing proves an operation pure
+  private static final class Hoist extends Pass {
+    private final Stack<Object> frames = new Stack<>(); // operations, scoped bodies and 'as' loops around the walk
+    private Effects program; // everything the program reassigns, which a loop that calls out may change
+    private int hoisted;
+
+    Hoist() { super("hoist", true); }
+
+    @Override
+    void run(List<Statement> statements) {
+      program = new Effects();
+      program.rewrite(statements);
+      hoisted = 0;
+      rewrite(statements);
+    }
+
+    @Override
+    String summary(int removed) { return "hoisted " + hoisted + " invariant expressions."; }
+
+    @Override
+    public Statement visitOperationStatement(Statement.Operation statement) {
+      frames.push(statement);
+      super.visitOperationStatement(statement);
+      frames.pop();
+      return statement;
+    }
+
+    @Override
+    public Statement visitBodyStatement(Statement.Body statement) {
+      if (!statement.scoped) { return super.visitBodyStatement(statement); }
+
+      frames.push(statement);
+      super.visitBodyStatement(statement);
+      frames.pop();
+      return statement;
+    }
+
+    // an 'as' loop keeps its temporaries in its own frame, set right after its initializer
+    @Override
+    public Statement visitAsStatement(Statement.As statement) {
+      frames.push(statement);
+      Statement.As as = (Statement.As)super.visitAsStatement(statement);
+      frames.pop();
+
+      Lift lift = new Lift(as, effects(as.initializer, as.condition, as.increment, as.body));
+      Express condition = lift.condition(as.condition);
+      Express increment = as.increment == null ? null : lift.body(as.increment);
+      Statement body = lift.body(as.body);
+      if (lift.temporaries.isEmpty()) { return as; }
+
+      List<Statement> setup = new ArrayList<>();
+      if (as.initializer != null) { setup.add(as.initializer); }
+      setup.addAll(lift.temporaries);
+
+      Statement.As loop = new Statement.As(unscoped(setup), condition, increment, body);
+      loop.size = as.size;
+      loop.slot = as.slot;
+      return loop;
+    }
+
+    // a 'while' loop has no frame, so its temporaries are set just before it, in the frame it runs in; at the
+    // top level that is a block of their own, since everything around the loop is a global read by index, and
+    // a loop that reaches out with 'parent.' would find that block in the way
+    @Override
+    public Statement visitWhileStatement(Statement.While statement) {
+      Statement.While loop = (Statement.While)super.visitWhileStatement(statement);
+      Statement.Body block = new Statement.Body(new ArrayList<>());
+      Effects effects = effects(null, loop.condition, null, loop.body);
+      if (frames.isEmpty() && effects.parents) { return loop; }
+
+      Lift lift = new Lift(frames.isEmpty() ? block : frames.peek(), effects);
+      Express condition = lift.condition(loop.condition);
+      Statement body = lift.body(loop.body);
+      if (lift.temporaries.isEmpty()) { return loop; }
+
+      List<Statement> statements = frames.isEmpty() ? block.statements : new ArrayList<>();
+      statements.addAll(lift.temporaries);
+      statements.add(new Statement.While(condition, body));
+      return frames.isEmpty() ? block : unscoped(statements);
+    }
+
+    private static Effects effects(Statement initializer, Express condition, Express increment, Statement body) {
+      Effects effects = new Effects();
+      if (initializer != null) { effects.rewrite(initializer); }
+      effects.rewrite(condition);
+      if (increment != null) { effects.rewrite(increment); }
+      effects.rewrite(body);
+      return effects;
+    }
+
+    // a new slot at the end of a frame, past every slot the Resolver handed out
+    private static int grow(Object frame) {
+      if (frame instanceof Statement.Operation) { return ((Statement.Operation)frame).size++; }
+      if (frame instanceof Statement.As) { return ((Statement.As)frame).size++; }
+      return ((Statement.Body)frame).size++;
+    }
+
+    // replaces the invariant parts of one loop with reads of its temporaries; depth counts the frames between
+    // the expression being looked at and the frame the temporaries live in
+    private final class Lift extends Pass {
+      final List<Statement> temporaries = new ArrayList<>();
+      private final Object frame;
+      private final Effects loop;
+      private boolean body;
+      private boolean effected; // the condition has already called out or assigned, so what follows stays in order
+      private int depth;
+
+      Lift(Object frame, Effects loop) {
+        super("lift", true);
+        this.frame = frame;
+        this.loop = loop;
+      }
+
+      Express condition(Express condition) {
+        body = false;
+        effected = false;
+        return rewrite(condition);
+      }
+
+      Express body(Express express) {
+        body = true;
+        return rewrite(express);
+      }
+
+      Statement body(Statement statement) {
+        body = true;
+        return rewrite(statement);
+      }
+
+      // a condition is walked in the order it runs, so nothing moves ahead of an effect it used to follow
+      @Override
+      Express rewrite(Express express) {
+        if (!body && effected) { return express; }
+        if (worth(express) && invariant(express)) { return temporary(express); }
+
+        Express rewritten = super.rewrite(express);
+        if (!body && effect(express)) { effected = true; }
+        return rewritten;
+      }
+
+      // the right of '&&' or '||' in a condition may never run
+      @Override
+      public Express visitLogicalExpress(Express.Logical express) {
+        if (body) { return super.visitLogicalExpress(express); }
+
+        Express left = rewrite(express.left);
+        if (left == express.left) { return express; }
+        return typed(new Express.Logical(left, express.operator, express.right), express);
+      }
+
+      @Override
+      public Statement visitBodyStatement(Statement.Body statement) {
+        if (statement.scoped) { depth++; }
+        super.visitBodyStatement(statement);
+        if (statement.scoped) { depth--; }
+        return statement;
+      }
+
+      @Override
+      public Statement visitAsStatement(Statement.As statement) {
+        depth++;
+        Statement as = super.visitAsStatement(statement);
+        depth--;
+        return as;
+      }
+
+      @Override
+      public Statement visitOperationStatement(Statement.Operation statement) { return statement; }
+
+      @Override
+      public Statement visitObjStatement(Statement.Obj statement) { return statement; }
+
+      @Override
+      public Statement visitFormStatement(Statement.Form statement) { return statement; }
+
+      // a lone variable or literal is already as cheap as the temporary would be
+      private boolean worth(Express express) {
+        return express instanceof Express.Binary || express instanceof Express.Unary
+            || express instanceof Express.GetProps;
+      }
+
+      private boolean invariant(Express express) {
+        if (express instanceof Express.Literal) { return true; }
+        if (express instanceof Express.Grouping) { return invariant(((Express.Grouping)express).expression); }
+        if (express instanceof Express.Variable) {
+          Express.Variable variable = (Express.Variable)express;
+          return (variable.depth < 0 || variable.depth >= depth) && unchanged(variable.name);
+        }
+        if (express instanceof Express.GlobalVariable) { return unchanged(((Express.GlobalVariable)express).name); }
+        if (express instanceof Express.Unary) {
+          Express.Unary unary = (Express.Unary)express;
+          return safe(unary.operator, unary.proven) && invariant(unary.right);
+        }
+        if (express instanceof Express.Binary) {
+          Express.Binary binary = (Express.Binary)express;
+          return safe(binary.operator, binary.proven) && invariant(binary.left) && invariant(binary.right);
+        }
+        if (express instanceof Express.GetProps) {
+          Express.GetProps get = (Express.GetProps)express;
+          return !body && !loop.calls && !loop.properties.contains(get.name.lexeme) && invariant(get.object);
+        }
+        return false;
+      }
+
+      private boolean unchanged(Token name) {
+        return !loop.assigned.contains(name.lexeme) && !loop.declared.contains(name.lexeme)
+            && !(loop.calls && program.assigned.contains(name.lexeme));
+      }
+
+      private boolean effect(Express express) {
+        return express instanceof Express.Calling || express instanceof Express.Invoke
+            || express instanceof Express.Assign || express instanceof Express.Count
+            || express instanceof Express.SetProps || express instanceof Express.ParentAssign
+            || express instanceof Express.GlobalAssign;
+      }
+
+      // ints divide by zero and powers overflow their exponent; everything else proven runs without failing
+      private boolean safe(Token operator, boolean proven) {
+        if (!body) { return true; }
+        return proven && operator.type != TokenType.WHACK && operator.type != TokenType.POWER;
+      }
+
+      private Express temporary(Express express) {
+        Token name = new Token(TokenType.IDENTIFIER, "(hoisted " + hoisted++ + ")", null, 0);
+        Statement.Variable temporary = new Statement.Variable(name, depth == 0 ? express : new Shift(depth).rewrite(express));
+        temporary.slot = grow(frame);
+        temporaries.add(temporary);
+
+        Express.Variable read = typed(new Express.Variable(name), express);
+        read.depth = depth;
+        read.slot = temporary.slot;
+        return read;
+      }
+    }
+  }
+
+
+  /// HELPER FUNCTIONS //
+
+  private static boolean truthful(Express literal) { return Interpreter.isTruthful(((Express.Literal)literal).value); }
+
+  // statements run in the frame around them
+  private static Statement.Body unscoped(List<Statement> statements) {
+    Statement.Body body = new Statement.Body(statements);
+    body.scoped = false;
+    return body;
+  }
+
+
+  /// HELPER CLASSES //
+
+  // what a stretch of the tree may change: the names it reassigns, the names it declares, the properties it
+  // sets, and whether it calls out, after which anything the program reassigns may have changed; and whether
+  // it counts frames outward with 'parent.'; a call only declares names in frames of its own, so a declaration
+  // elsewhere in the program never changes what a loop reads
+  private static final class Effects extends Pass {
+    final Set<String> assigned = new HashSet<>();
+    final Set<String> declared = new HashSet<>();
+    final Set<String> properties = new HashSet<>();
+    boolean calls;
+    boolean parents;
+
+    Effects() { super("effects", false); }
+
+    @Override
+    public Statement visitOperationStatement(Statement.Operation statement) {
+      declared.add(statement.name.lexeme);
+      return super.visitOperationStatement(statement);
+    }
+
+    @Override
+    public Statement visitObjStatement(Statement.Obj statement) {
+      declared.add(statement.name.lexeme);
+      return super.visitObjStatement(statement);
+    }
+
+    @Override
+    public Statement visitEnumStatement(Statement.Enum statement) {
+      declared.add(statement.name.lexeme);
+      return statement;
+    }
+
+    @Override
+    public Statement visitFormStatement(Statement.Form statement) {
+      declared.add(statement.name.lexeme);
+      return super.visitFormStatement(statement);
+    }
+
+    @Override
+    public Statement visitVariableStatement(Statement.Variable statement) {
+      declared.add(statement.name.lexeme);
+      return super.visitVariableStatement(statement);
+    }
+
+    @Override
+    public Express visitAssignExpress(Express.Assign express) {
+      assigned.add(express.name.lexeme);
+      return super.visitAssignExpress(express);
+    }
+
+    @Override
+    public Express visitCountExpress(Express.Count express) {
+      assigned.add(express.name.lexeme);
+      return express;
+    }
+
+    @Override
+    public Express visitParentVariableExpress(Express.ParentVariable express) {
+      parents = true;
+      return express;
+    }
+
+    @Override
+    public Express visitParentAssignExpress(Express.ParentAssign express) {
+      assigned.add(express.target.name.lexeme);
+      parents = true;
+      return super.visitParentAssignExpress(express);
+    }
+
+    @Override
+    public Express visitGlobalAssignExpress(Express.GlobalAssign express) {
+      assigned.add(express.name.lexeme);
+      return super.visitGlobalAssignExpress(express);
+    }
+
+    @Override
+    public Express visitSetPropsExpress(Express.SetProps express) {
+      properties.add(express.name.lexeme);
+      return super.visitSetPropsExpress(express);
+    }
+
+    @Override
+    public Express visitCallingExpress(Express.Calling express) {
+      calls = true;
+      return super.visitCallingExpress(express);
+    }
+
+    @Override
+    public Express visitInvokeExpress(Express.Invoke express) {
+      calls = true;
+      return super.visitInvokeExpress(express);
+    }
+  }
+
+  // an expression moved out of frames it was resolved in reads every local that many frames fewer out
+  private static final class Shift extends Pass {
+    private final int frames;
+
+    Shift(int frames) {
+      super("shift", false);
+      this.frames = frames;
+    }
+
+    @Override
+    public Express visitVariableExpress(Express.Variable express) {
+      if (express.depth < 0) { return express; }
+
+      Express.Variable variable = typed(new Express.Variable(express.name), express);
+      variable.depth = express.depth - frames;
+      variable.slot = express.slot;
+      return variable;
+    }
+  }
+
+  // walks the whole tree and changes nothing; passes override the nodes they rewrite, and a statement
+  // rewritten to null is removed
+  private abstract static class Pass implements Express.Visitor<Express>, Statement.Visitor<Statement> {
+    final String name;
+    final boolean typed; // runs after Inference over a whole program, on the types it proved
+    int nodes; // visited, for counting
+
+    Pass(String name, boolean typed) {
+      this.name = name;
+      this.typed = typed;
+    }
+
+    void run(List<Statement> statements) { rewrite(statements); }
+
+    String summary(int removed) { return "removed " + removed + " nodes."; }
+
+    void rewrite(List<Statement> statements) {
+      for (int i = 0; i < statements.size(); i++) {
+        Statement statement = rewrite(statements.get(i));
+        if (dead(statement)) {
+          statements.remove(i--);
+        } else {
+          statements.set(i, statement);
+        }
+      }
+    }
+
+    boolean dead(Statement statement) { return statement == null; }
+
+    Statement rewrite(Statement statement) {
+      nodes++;
+      return statement.accept(this);
+    }
+
+    Express rewrite(Express express) {
+      nodes++;
+      return express.accept(this);
+    }
+
+    // a branch has to stay a statement, so one rewritten away becomes an empty body
+    private Statement branch(Statement statement) {
+      Statement rewritten = rewrite(statement);
+      return rewritten != null ? rewritten : unscoped(new ArrayList<>());
+    }
+
+    static <E extends Express> E typed(E rebuilt, Express express) {
+      rebuilt.type = express.type;
+      return rebuilt;
+    }
+
+    /// STATEMENTS //
+
+    @Override
+    public Statement visitExpressionStatement(Statement.Expression statement) {
+      Express expression = rewrite(statement.expression);
+      return expression == statement.expression ? statement : new Statement.Expression(expression);
+    }
+
+    @Override
+    public Statement visitOperationStatement(Statement.Operation statement) {
+      rewrite(statement.body);
+      return statement;
+    }
+
+    @Override
+    public Statement visitOrStatement(Statement.Or statement) {
+      Express condition = rewrite(statement.condition);
+      Statement branch = branch(statement.orBranch);
+      if (condition == statement.condition && branch == statement.orBranch) { return statement; }
+      return new Statement.Or(condition, branch);
+    }
+
+    @Override
+    public Statement visitWhenStatement(Statement.When statement) {
+      Express condition = rewrite(statement.condition);
+      Statement then = branch(statement.thenBranch);
+      for (int i = 0; i < statement.orBranches.size(); i++) {
+        statement.orBranches.set(i, (Statement.Or)rewrite(statement.orBranches.get(i)));
+      }
+      Statement otherwise = statement.elseBranch == null ? null : rewrite(statement.elseBranch);
+
+      if (condition == statement.condition && then == statement.thenBranch && otherwise == statement.elseBranch) {
+        return statement;
+      }
+      return new Statement.When(condition, then, statement.orBranches, otherwise);
+    }
+
+    @Override
+    public Statement visitWhileStatement(Statement.While statement) {
+      Express condition = rewrite(statement.condition);
+      Statement body = branch(statement.body);
+      if (condition == statement.condition && body == statement.body) { return statement; }
+      return new Statement.While(condition, body);
+    }
+
+    @Override
+    public Statement visitAsStatement(Statement.As statement) {
+      Statement initializer = statement.initializer == null ? null : rewrite(statement.initializer);
+      Express condition = rewrite(statement.condition);
+      Express increment = statement.increment == null ? null : rewrite(statement.increment);
+      Statement body = branch(statement.body);
+
+      if (initializer == statement.initializer && condition == statement.condition
+          && increment == statement.increment && body == statement.body) {
+        return statement;
+      }
+
+      Statement.As loop = new Statement.As(initializer, condition, increment, body);
+      loop.size = statement.size;
+      loop.slot = statement.slot;
+      return loop;
+    }
+
+    @Override
+    public Statement visitPrintStatement(Statement.Print statement) {
+      Express expression = rewrite(statement.expression);
+      return expression == statement.expression ? statement : new Statement.Print(expression);
+    }
+
+    @Override
+    public Statement visitReturnStatement(Statement.Return statement) {
+      Express value = statement.value == null ? null : rewrite(statement.value);
+      if (value == statement.value) { return statement; }
+
+      Statement.Return returned = new Statement.Return(statement.keyword, value);
+      returned.tail = statement.tail;
+      return returned;
+    }
+
+    @Override
+    public Statement visitBodyStatement(Statement.Body statement) {
+      rewrite(statement.statements);
+      return statement;
+    }
+
+    @Override
+    public Statement visitObjStatement(Statement.Obj statement) {
+      rewrite(statement.body);
+      return statement;
+    }
+
+    @Override
+    public Statement visitEnumStatement(Statement.Enum statement) { return statement; }
+
+    @Override
+    public Statement visitFormStatement(Statement.Form statement) {
+      for (int i = 0; i < statement.members.size(); i++) {
+        statement.members.set(i, (Statement.Variable)rewrite(statement.members.get(i)));
+      }
+      return statement;
+    }
+
+    @Override
+    public Statement visitVariableStatement(Statement.Variable statement) {
+      Express initial = statement.initial == null ? null : rewrite(statement.initial);
+      if (initial == statement.initial) { return statement; }
+
+      Statement.Variable variable = new Statement.Variable(statement.name, initial);
+      variable.slot = statement.slot;
+      return variable;
+    }
+
+    /// EXPRESSIONS //
+
+    @Override
+    public Express visitAssignExpress(Express.Assign express) {
+      Express value = rewrite(express.value);
+      if (value == express.value) { return express; }
+
+      Express.Assign assign = typed(new Express.Assign(express.name, value), express);
+      assign.depth = express.depth;
+      assign.slot = express.slot;
+      return assign;
+    }
+
+    @Override
+    public Express visitCountExpress(Express.Count express) { return express; }
+
+    @Override
+    public Express visitUnaryExpress(Express.Unary express) {
+      Express right = rewrite(express.right);
+      if (right == express.right) { return express; }
+
+      Express.Unary unary = typed(new Express.Unary(express.operator, right), express);
+      unary.operands = express.operands;
+      unary.proven = express.proven;
+      return unary;
+    }
+
+    @Override
+    public Express visitBinaryExpress(Express.Binary express) {
+      Express left = rewrite(express.left);
+      Express right = rewrite(express.right);
+      if (left == express.left && right == express.right) { return express; }
+
+      Express.Binary binary = typed(new Express.Binary(left, express.operator, right), express);
+      binary.operands = express.operands;
+      binary.proven = express.proven;
+      return binary;
+    }
+
+    @Override
+    public Express visitCallingExpress(Express.Calling express) {
+      Express called = rewrite(express.called);
+      for (int i = 0; i < express.args.size(); i++) { express.args.set(i, rewrite(express.args.get(i))); }
+      return called == express.called ? express : typed(new Express.Calling(called, express.args), express);
+    }
+
+    @Override
+    public Express visitInvokeExpress(Express.Invoke express) {
+      Express object = rewrite(express.object);
+      for (int i = 0; i < express.args.size(); i++) { express.args.set(i, rewrite(express.args.get(i))); }
+      return object == express.object ? express : typed(new Express.Invoke(object, express.name, express.args), express);
+    }
+
+    @Override
+    public Express visitSelfExpress(Express.Self express) { return express; }
+
+    @Override
+    public Express visitGetPropsExpress(Express.GetProps express) {
+      Express object = rewrite(express.object);
+      return object == express.object ? express : typed(new Express.GetProps(object, express.name), express);
+    }
+
+    @Override
+    public Express visitSetPropsExpress(Express.SetProps express) {
+      Express object = rewrite(express.object);
+      Express value = rewrite(express.value);
+      if (object == express.object && value == express.value) { return express; }
+      return typed(new Express.SetProps(object, express.locale, express.name, value), express);
+    }
+
+    @Override
+    public Express visitGroupingExpress(Express.Grouping express) {
+      Express expression = rewrite(express.expression);
+      return expression == express.expression ? express : typed(new Express.Grouping(expression), express);
+    }
+
+    @Override
+    public Express visitLiteralExpress(Express.Literal express) { return express; }
+
+    @Override
+    public Express visitLogicalExpress(Express.Logical express) {
+      Express left = rewrite(express.left);
+      Express right = rewrite(express.right);
+      if (left == express.left && right == express.right) { return express; }
+      return typed(new Express.Logical(left, express.operator, right), express);
+    }
+
+    @Override
+    public Express visitVariableExpress(Express.Variable express) { return express; }
+
+    @Override
+    public Express visitParentVariableExpress(Express.ParentVariable express) { return express; }
+
+    @Override
+    public Express visitGlobalVariableExpress(Express.GlobalVariable express) { return express; }
+
+    @Override
+    public Express visitParentAssignExpress(Express.ParentAssign express) {
+      Express value = rewrite(express.value);
+      return value == express.value ? express : typed(new Express.ParentAssign(express.target, value), express);
+    }
+
+    @Override
+    public Express visitGlobalAssignExpress(Express.GlobalAssign express) {
+      Express value = rewrite(express.value);
+      if (value == express.value) { return express; }
+
+      Express.GlobalAssign assign = typed(new Express.GlobalAssign(express.name, value), express);
+      assign.slot = express.slot;
+      return assign;
+    }
+  }
+}
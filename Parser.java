@@ -190,37 +190,18 @@ class Parser {
 
     // check for runtime error IF counter/increment THEN IF !nullinit
 
-    // if the incrementer is not null, we want to increment at the end
-    if ((increment != null || counter != null) && !nullinit) {
-      if(counter != null){
-        body = new Statement.Body(
-          Arrays.asList(
-            body,
-            new Statement.Expression(new Express.Count(counter, new Express.Variable(initName), initName))));
-      } else {
-        body = new Statement.Body(
-          Arrays.asList(
-            body,
-            new Statement.Expression(new Express.Assign(initName, increment))));
-      }
+    // the step runs after the body on every pass
+    Express step = null;
+    if (counter != null && !nullinit) {
+      step = new Express.Count(counter, new Express.Variable(initName), initName);
+    } else if (increment != null && !nullinit) {
+      step = new Express.Assign(initName, increment);
     }
 
-
     if (condition == null) { condition = new Express.Literal(true); }
-    body = new Statement.While(condition, body);
+    Statement initializer = initdef ? initializerVar : initializerExpr;
 
-    if (initializerVar != null || initializerExpr != null) {
-      if(initdef){
-        body = new Statement.Body(Arrays.asList(initializerVar, body));
-      } else {
-        body = new Statement.Body(Arrays.asList(initializerExpr, body));
-      }     
-    }
-    else if (!nullinit) {
-      body = new Statement.Body(Arrays.asList(new Statement.Expression(initVal), body));
-    } 
-    
-    return body;
+    return new Statement.As(initializer, condition, step, body);
   }
 
 
@@ -301,7 +282,7 @@ class Parser {
   ////////
   
   private Statement.Operation operation(String kind) {
-    Token name = consume(IDENTIFIER, "expected " + kind + " name.");
+    Token name = kind.equals("method") && match(PILOT) ? previous() : consume(IDENTIFIER, "expected " + kind + " name.");
     consume(L_ASSIGN, "Imperative Left Assignment operator '<-' expected after " + kind + " declaration.");
     List<Token> params = new ArrayList<>();
 
@@ -382,6 +363,10 @@ class Parser {
       } else if (expr instanceof Express.GetProps) {
         Express.GetProps get = (Express.GetProps)expr;
         return new Express.SetProps(get.object, new Token(PUBLIC, "public", null, 0), get.name, value);
+      } else if (expr instanceof Express.GlobalVariable) {
+        return new Express.GlobalAssign(((Express.GlobalVariable)expr).name, value);
+      } else if (expr instanceof Express.ParentVariable) {
+        return new Express.ParentAssign((Express.ParentVariable)expr, value);
       }
 
       error(equals, "Invalid assignment target.");
@@ -481,7 +466,19 @@ class Parser {
       Express right = unary();
       return new Express.Unary(operator, right);
     }
-    return scoping();
+    return power();
+  }
+
+  // binds tighter than a sign on its left and groups to the right: -2 ** 2 ** 3 is -(2 ** (2 ** 3))
+  private Express power() {
+    Express expr = scoping();
+
+    if (match(POWER)) {
+      Token operator = previous();
+      Express right = unary();
+      expr = new Express.Binary(expr, operator, right);
+    }
+    return expr;
   }
 
   private Express scoping() {
@@ -530,6 +527,11 @@ class Parser {
     
     // consume(LINE_END, "Calling '" + called + "' requires End Line '.' value.");
 
+    if (called instanceof Express.GetProps) {
+      Express.GetProps get = (Express.GetProps)called;
+      return new Express.Invoke(get.object, get.name, args);
+    }
+
     return new Express.Calling(called, args);
   }
 
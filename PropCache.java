@@ -0,0 +1,40 @@
+package dev.alephpt.Dis;
+
+// what a property site resolved for the last few receiver shapes; past WAYS shapes the site goes megamorphic
+final class PropCache {
+  private static final int WAYS = 4;
+  private final Object[] layouts = new Object[WAYS];
+  private final int[] slots = new int[WAYS];
+  private final Object[] targets = new Object[WAYS];
+  private int size = 0;
+  private boolean megamorphic = false;
+
+  // the entry for this layout, or -1
+  int find(Object layout) {
+    for (int i = 0; i < size; i++) {
+      if (layouts[i] == layout) { return i; }
+    }
+
+    return -1;
+  }
+
+  // records a successful lookup, a slot or a target, returning its entry or -1 when nothing was cached
+  int remember(Object layout, int slot, Object target) {
+    if (megamorphic || (slot < 0 && target == null)) { return -1; }
+
+    if (size == WAYS) {
+      megamorphic = true;
+      size = 0;
+      return -1;
+    }
+
+    layouts[size] = layout;
+    slots[size] = slot;
+    targets[size] = target;
+    return size++;
+  }
+
+  int slot(int entry) { return slots[entry]; }
+
+  Object target(int entry) { return targets[entry]; }
+}
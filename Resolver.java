@@ -1,19 +1,21 @@
 package dev.alephpt.Dis;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
-  private final Interpreter interpreter;
-  private final Stack<Map<String, Boolean>> scopes = new Stack<>();
+  private final Stack<Scope> scopes = new Stack<>();
   private OperationType currentOperation = OperationType.NONE;
+  private Statement.Operation enclosing = null;
   private ObjectType currentObject = ObjectType.NONE;
-
-  Resolver(Interpreter interpreter) {
-    this.interpreter = interpreter;
-  }
+  private final Set<Express.ParentVariable> written = new HashSet<>(); // parent variables assigned through
+  private final Globals globals; // the indices of the interpreter this code will run in
 
   private enum OperationType {
     NONE,
@@ -26,42 +28,76 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
     OBJECT, 
   }
 
+  private static class Scope {
+    final Map<String, Boolean> names = new HashMap<>();
+    final Map<String, Integer> slots = new HashMap<>();
+    final List<Express.ParentVariable> parentals = new ArrayList<>();
+    final Map<Express.ParentVariable, Capture> captives = new HashMap<>(); // parentals read from inside an operation
+    final Set<String> assigned = new HashSet<>();
+    final Map<String, List<Capture>> captured = new HashMap<>(); // by the name they capture out of this scope
+    final Map<String, Integer> free = new HashMap<>(); // an operation's captures by name, into owner.free
+    final boolean elided; // a block declaring nothing, run in the frame of the scope around it
+    final Statement.Operation owner; // the operation whose frame this is, for its outermost scope
+
+    Scope(boolean elided, Statement.Operation owner) {
+      this.elided = elided;
+      this.owner = owner;
+    }
+  }
+
+  // where a name resolves: frames out and slot, and the scope declaring it; GLOBAL when no scope does
+  private static class Place {
+    static final Place GLOBAL = new Place(null, -1, -1);
+
+    final Scope scope;
+    final int depth, slot;
+
+    Place(Scope scope, int depth, int slot) {
+      this.scope = scope;
+      this.depth = depth;
+      this.slot = slot;
+    }
+  }
+
+  Resolver(Globals globals) {
+    this.globals = globals;
+  }
+
 
   @Override
   public Void visitObjStatement(Statement.Obj object) {
     ObjectType enclosingObject = currentObject;
     currentObject = ObjectType.OBJECT;
-
-    declare(object.name);
+    object.slot = declare(object.name);
     define(object.name);
+    int late = capturedSoFar(object.name);
 
-    beginScope();
-    scopes.peek().put("this", true);
-    
     for (int i = 0; i < object.body.size(); i++) {
 
       if (object.body.get(i) instanceof Statement.Operation) {
-        resolveOperation(((Statement.Operation)object.body.get(i)), OperationType.METHOD);
+        Statement.Operation method = (Statement.Operation)object.body.get(i);
+        resolveOperation(method, OperationType.METHOD);
+        if (method.name.type == TokenType.PILOT) { object.layout = layoutOf(method); }
       } else if (object.body.get(i) instanceof Statement.Variable) {
         resolve(((Statement.Variable)object.body.get(i)).initial);
       }
     }
+    shareFrom(object.name, late);
 
-    endScope();
     currentObject = enclosingObject;
     return null;
   }
 
   @Override
   public Void visitEnumStatement(Statement.Enum enumstmnt) {
-    declare(enumstmnt.name);
+    enumstmnt.slot = declare(enumstmnt.name);
     define(enumstmnt.name);
     return null;
   }
 
   @Override
   public Void visitFormStatement(Statement.Form form) {
-    declare(form.name);
+    form.slot = declare(form.name);
 
     for (Statement.Variable variable : form.members) {
       declare(variable.name);
@@ -74,17 +110,20 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
 
   @Override
   public Void visitBodyStatement(Statement.Body body) {
-    beginScope();
+    body.scoped = declares(body.statements);
+    scopes.push(new Scope(!body.scoped, null));
     resolve(body.statements);
-    endScope();
+    body.size = endScope();
     return null;
   }
 
   @Override
   public Void visitOperationStatement(Statement.Operation operation) {
-    declare(operation.name);
+    operation.slot = declare(operation.name);
     define(operation.name);
+    int late = capturedSoFar(operation.name);
     resolveOperation(operation, OperationType.OPERATION);
+    shareFrom(operation.name, late);
     return null;
   }
 
@@ -96,6 +135,7 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
 
     if (returnstmnt.value != null) { 
       resolve(returnstmnt.value);
+      if (isSelfCall(returnstmnt.value)) { returnstmnt.tail = enclosing; }
     }
 
     return null;
@@ -133,9 +173,22 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
     return null;
   }
 
+  @Override
+  public Void visitAsStatement(Statement.As as) {
+    beginScope();
+    if (as.initializer != null) { resolve(as.initializer); }
+    resolve(as.condition);
+    resolve(as.body);
+    if (as.increment != null) { resolve(as.increment); }
+    as.size = endScope();
+
+    if (isCounted(as)) { as.slot = ((Statement.Variable)as.initializer).slot; }
+    return null;
+  }
+
   @Override
   public Void visitVariableStatement(Statement.Variable variable) {
-    declare(variable.name);
+    variable.slot = declare(variable.name);
     if (variable.initial != null) { resolve(variable.initial); }
     define(variable.name);
     return null;
@@ -153,29 +206,48 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
       DisC.error(self.keyword, "Self Reference cannot be done outside of Objects.");
     }
 
-    resolveLocal(self, self.keyword);
+    Place place = resolveLocal(self.keyword);
+    self.depth = place.depth;
+    self.slot = place.slot;
     return null;
   }
 
   @Override
   public Void visitVariableExpress(Express.Variable variable) {
-    if(!scopes.isEmpty() && scopes.peek().get(variable.name.lexeme) == Boolean.FALSE) {
+    if(!scopes.isEmpty() && scopes.peek().names.get(variable.name.lexeme) == Boolean.FALSE) {
       DisC.error(variable.name, "Needs to return 'none'"); 
     }
 
-    resolveLocal(variable, variable.name);
+    Place place = resolveLocal(variable.name);
+    variable.depth = place.depth;
+    variable.slot = place.slot;
     return null;
   }
 
   @Override
   public Void visitGlobalVariableExpress(Express.GlobalVariable globally) {
-    resolveGlobal(globally, globally.name);
+    globally.slot = globals.indexOf(globally.name.lexeme);
+    return null;
+  }
+
+  @Override
+  public Void visitGlobalAssignExpress(Express.GlobalAssign assignment) {
+    resolve(assignment.value);
+    assignment.slot = globals.indexOf(assignment.name.lexeme);
+    return null;
+  }
+
+  @Override
+  public Void visitParentAssignExpress(Express.ParentAssign assignment) {
+    resolve(assignment.value);
+    resolveParent(assignment.target);
+    written.add(assignment.target);
     return null;
   }
 
   @Override
   public Void visitParentVariableExpress(Express.ParentVariable parental) {
-    resolveParent(parental, parental.name);
+    resolveParent(parental);
     return null;
   }
   
@@ -195,7 +267,9 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
   @Override
   public Void visitAssignExpress(Express.Assign assignment) {
     resolve(assignment.value);
-    resolveLocal(assignment, assignment.name);
+    Place place = assigned(resolveLocal(assignment.name), assignment.name);
+    assignment.depth = place.depth;
+    assignment.slot = place.slot;
     return null;
   }
 
@@ -215,7 +289,9 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
   @Override
   public Void visitCountExpress(Express.Count count) {
     resolve(count.identifier);
-    resolveLocal(count, count.name);
+    Place place = assigned(resolveLocal(count.name), count.name);
+    count.depth = place.depth;
+    count.slot = place.slot;
     return null;
   }
 
@@ -228,6 +304,15 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
     return null;
   }
 
+  @Override
+  public Void visitInvokeExpress(Express.Invoke invoke) {
+    resolve(invoke.object);
+    for (Express argument : invoke.args) {
+      resolve(argument);
+    }
+    return null;
+  }
+
   @Override
   public Void visitLiteralExpress(Express.Literal literally) {
     return null;
@@ -249,8 +334,31 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
 
   /// HELPER FUNCTIONS //
 
-  private void beginScope() { scopes.push(new HashMap<String, Boolean>()); }
-  private void endScope() { scopes.pop(); }
+  private void beginScope() { scopes.push(new Scope(false, null)); }
+
+  // parent lookups are settled once every name of the parent scope is known, and captures of the
+  // variables it assigned anywhere are shared
+  private int endScope() {
+    Scope scope = scopes.pop();
+    for (Express.ParentVariable parental : scope.parentals) {
+      Integer slot = scope.slots.get(parental.name.lexeme);
+      if (slot != null) { parental.slot = slot; }
+      if (slot != null && written.contains(parental)) { scope.assigned.add(parental.name.lexeme); }
+    }
+    for (Map.Entry<Express.ParentVariable, Capture> captive : scope.captives.entrySet()) {
+      Integer slot = scope.slots.get(captive.getKey().name.lexeme);
+      if (slot != null) {
+        captive.getValue().slot = slot;
+      } else {
+        captive.getKey().slot = -1;
+      }
+      if (slot != null && written.contains(captive.getKey())) { scope.assigned.add(captive.getKey().name.lexeme); }
+    }
+    for (String name : scope.assigned) {
+      for (Capture capture : scope.captured.getOrDefault(name, Collections.emptyList())) { capture.shared = true; }
+    }
+    return scope.slots.size();
+  }
 
   private void resolve(Statement statement) { statement.accept(this); }
   private void resolve(Express express) { express.accept(this); }
@@ -261,59 +369,186 @@ class Resolver implements Express.Visitor<Void>, Statement.Visitor<Void> {
     }
   }
 
-  private void resolveLocal(Express express, Token name) {
-    for (int i = scopes.size() - 1; i >= 0; i--) {
-      if (scopes.get(i).containsKey(name.lexeme)) {
-        interpreter.resolve(express, scopes.size() - 1 - i);
+  // a name no scope declares is a global, and its slot is its index in the globals table
+  private Place resolveLocal(Token name) {
+    Place place = lookup(name.lexeme, scopes.size() - 1);
+    return place != Place.GLOBAL ? place : new Place(null, -1, globals.indexOf(name.lexeme));
+  }
+
+  // a name found outside the operation being searched becomes one of its captures, one frame out
+  // from its body, where the closure holds it
+  private Place lookup(String name, int from) {
+    int depth = 0;
+    for (int i = from; i >= 0; i--) {
+      Scope scope = scopes.get(i);
+      Integer slot = scope.slots.get(name);
+      if (slot != null) { return new Place(scope, depth, slot); }
+
+      if (scope.owner != null && scope.owner.free != null) {
+        Place outer = lookup(name, i - 1);
+        if (outer == Place.GLOBAL) { return outer; }
+        return new Place(outer.scope, depth + 1, capture(scope, name, outer));
+      }
+      if (!scope.elided) { depth++; }
+    }
+    return Place.GLOBAL;
+  }
+
+  private int capture(Scope operation, String name, Place outer) {
+    Integer index = operation.free.get(name);
+    if (index != null) { return index; }
+
+    Capture capture = new Capture(outer.depth, outer.slot);
+    outer.scope.captured.computeIfAbsent(name, key -> new ArrayList<>()).add(capture);
+    operation.owner.free.add(capture);
+    operation.free.put(name, operation.owner.free.size() - 1);
+    return operation.owner.free.size() - 1;
+  }
+
+  private Place assigned(Place place, Token name) {
+    if (place.scope != null) { place.scope.assigned.add(name.lexeme); }
+    return place;
+  }
+
+  // an operation or object read inside its own declaration is captured before it is stored
+  private int capturedSoFar(Token name) {
+    if (scopes.isEmpty()) { return 0; }
+    return scopes.peek().captured.getOrDefault(name.lexeme, Collections.emptyList()).size();
+  }
+
+  private void shareFrom(Token name, int from) {
+    if (scopes.isEmpty()) { return; }
+
+    List<Capture> captures = scopes.peek().captured.getOrDefault(name.lexeme, Collections.emptyList());
+    for (int i = from; i < captures.size(); i++) { captures.get(i).shared = true; }
+  }
+
+  // an elided block's parent scope owns the frame it runs in; an operation's parent scope lies outside it,
+  // so the variable is captured, and shared since it may only be declared after the operation is made
+  private void resolveParent(Express.ParentVariable parental) {
+    if (!scopes.isEmpty() && scopes.peek().elided) { parental.depth = 0; }
+    if (scopes.size() > 1) {
+      Scope scope = scopes.peek();
+      Scope parent = scopes.get(scopes.size() - 2);
+      if (scope.owner == null || scope.owner.free == null) {
+        parent.parentals.add(parental);
         return;
       }
+
+      Capture capture = new Capture(0, -1);
+      capture.shared = true;
+      scope.owner.free.add(capture);
+      parental.slot = scope.owner.free.size() - 1;
+      parent.captives.put(parental, capture);
     }
   }
 
-  private void resolveGlobal(Express express, Token name) {
-    if (scopes.get(0).containsKey(name.lexeme)) {
-      interpreter.resolve(express, scopes.size() - 1); // -1?
-      return;
+  private boolean framed() {
+    for (Scope scope : scopes) {
+      if (!scope.elided) { return true; }
     }
+    return false;
   }
 
-  private void resolveParent(Express express, Token name) {
-    int scopeSize = scopes.size() - 1;
-    if (scopes.get(scopeSize).containsKey(name.lexeme)) {
-      interpreter.resolve(express, scopeSize); 
-      return;
+  // branches and loop bodies are single statements, so only a block's own statements can declare into it
+  private static boolean declares(List<Statement> statements) {
+    for (Statement statement : statements) {
+      if (statement instanceof Statement.Variable || statement instanceof Statement.Operation ||
+          statement instanceof Statement.Obj || statement instanceof Statement.Enum ||
+          statement instanceof Statement.Form) {
+        return true;
+      }
     }
+    return false;
   }
 
   private void resolveOperation(Statement.Operation operation, OperationType type) {
     OperationType enclosingOperation = currentOperation;
     currentOperation = type;
 
-    beginScope(); // is this what we need?
+    Statement.Operation outer = enclosing;
+    enclosing = operation;
+
+    // nested in a frame, it closes over what it reads from there; at the top level it keeps the globals
+    operation.free = framed() ? new ArrayList<>() : null;
+    scopes.push(new Scope(false, operation));
     for (Token parameter : operation.params) {
       declare(parameter);
       define(parameter);
     } 
+    // methods find their receiver in the slot after their parameters
+    if (type == OperationType.METHOD) {
+      scopes.peek().names.put("this", true);
+      scopes.peek().slots.put("this", operation.params.size());
+    }
     resolve(operation.body);
-    endScope();
+    operation.size = endScope();
 
+    enclosing = outer;
     currentOperation = enclosingOperation;
   }
 
-  private void declare(Token name) {
-    if (scopes.isEmpty()) return;
+  // the fields a pilot's top-level statements set on 'this', in the order they are set
+  private static List<String> layoutOf(Statement.Operation pilot) {
+    List<String> layout = new ArrayList<>();
+    for (Statement statement : pilot.body) {
+      if (!(statement instanceof Statement.Expression)) { continue; }
+
+      Express express = ((Statement.Expression)statement).expression;
+      if (express instanceof Express.SetProps && ((Express.SetProps)express).object instanceof Express.Variable) {
+        Express.SetProps set = (Express.SetProps)express;
+        if (((Express.Variable)set.object).name.lexeme.equals("this") && !layout.contains(set.name.lexeme)) {
+          layout.add(set.name.lexeme);
+        }
+      }
+    }
+    return layout;
+  }
+
+  // 'as, def i <- a.(++) < b:' counts a variable of its own, compared against a bound on every pass
+  private static boolean isCounted(Statement.As as) {
+    if (!(as.initializer instanceof Statement.Variable) || !(as.increment instanceof Express.Count)) { return false; }
+    if (!(as.condition instanceof Express.Binary)) { return false; }
+
+    Express.Binary test = (Express.Binary)as.condition;
+    switch (test.operator.type) {
+      case LESSER: case LESS_EQ: case GREATER: case GREAT_EQ: break;
+      default: return false;
+    }
+
+    int slot = ((Statement.Variable)as.initializer).slot;
+    return test.left instanceof Express.Variable
+        && ((Express.Variable)test.left).depth == 0 && ((Express.Variable)test.left).slot == slot
+        && ((Express.Count)as.increment).depth == 0 && ((Express.Count)as.increment).slot == slot;
+  }
+
+  // '^ op->args.' where op names the operation being resolved; the runtime still checks the callee
+  private boolean isSelfCall(Express value) {
+    if (enclosing == null || !(value instanceof Express.Calling)) { return false; }
+
+    Express.Calling call = (Express.Calling)value;
+    return call.called instanceof Express.Variable
+        && ((Express.Variable)call.called).name.lexeme.equals(enclosing.name.lexeme)
+        && call.args.size() == enclosing.params.size();
+  }
+
+  private int declare(Token name) {
+    if (scopes.isEmpty()) return -1;
 
-    Map<String, Boolean> scope = scopes.peek();
-    if (scope.containsKey(name.lexeme)) {
+    Scope scope = scopes.peek();
+    if (scope.names.containsKey(name.lexeme)) {
       DisC.error(name, "This variable already exists within this scope.");
+      return scope.slots.get(name.lexeme);
     }
 
-    scope.put(name.lexeme, false);
+    scope.names.put(name.lexeme, false);
+    scope.slots.put(name.lexeme, scope.slots.size());
+    return scope.slots.get(name.lexeme);
   }
 
   private void define(Token name) {
     if (scopes.isEmpty()) return;
-    scopes.peek().put(name.lexeme, true);
+    scopes.peek().names.put(name.lexeme, true);
   }
 
 }
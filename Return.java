@@ -1,10 +1,10 @@
 package dev.alephpt.Dis;
 
-class Return extends RuntimeException {
+// the completion of a '^' statement, handed back up through the enclosing statements
+class Return {
   final Object value;
 
   Return(Object value) {
-    super(null, null, false, false);
     this.value = value;
   }
 }
@@ -1,5 +1,6 @@
 package dev.alephpt.Dis;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -182,7 +183,7 @@ class Scanner {
     if (isDecimal) { 
       addToken(NUMERAL, Double.parseDouble(source.substring(start, current)));
     } else {
-      addToken(NUMERAL, Integer.parseInt(source.substring(start, current)));
+      addToken(NUMERAL, Numbers.narrow(new BigInteger(source.substring(start, current))));
     }
   }
 
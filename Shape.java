@@ -0,0 +1,55 @@
+package dev.alephpt.Dis;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the field layout shared by every instance that had the same fields set in the same order
+final class Shape {
+  final Shape root;
+  final int size;
+  private final Map<String, Integer> slots;
+  private final Map<String, Shape> transitions = new HashMap<>();
+  private int capacity = 0; // on the root: the fields reserved for its pilot's layout
+
+  Shape() {
+    this.root = this;
+    this.size = 0;
+    this.slots = new HashMap<>();
+  }
+
+  private Shape(Shape root, Map<String, Integer> slots) {
+    this.root = root;
+    this.size = slots.size();
+    this.slots = slots;
+  }
+
+  int slotOf(String name) {
+    Integer slot = slots.get(name);
+    return slot == null ? -1 : slot;
+  }
+
+  // the shape an instance moves to when it gains the field 'name', at slot 'size'
+  Shape with(String name) {
+    Shape next = transitions.get(name);
+    if (next == null) {
+      Map<String, Integer> grown = new HashMap<>(slots);
+      grown.put(name, size);
+      next = new Shape(root, grown);
+      transitions.put(name, next);
+    }
+
+    return next;
+  }
+
+  // builds the transitions for fields set in this order, so instances that follow it share them from the start,
+  // and makes room for them in every new instance
+  void reserve(List<String> fields) {
+    Shape shape = this;
+    for (String field : fields) { shape = shape.with(field); }
+    if (shape.size > root.capacity) { root.capacity = shape.size; }
+  }
+
+  // values for a new instance, with room for the reserved layout; fields set past it grow that instance alone
+  Object[] allocate() { return new Object[root.capacity]; }
+}
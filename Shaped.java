@@ -0,0 +1,84 @@
+package dev.alephpt.Dis;
+
+import java.util.Arrays;
+
+// field storage for obj and form instances: values in slots laid out by a Shape shared across instances
+abstract class Shaped {
+  private Shape shape;
+  private Object[] values;
+
+  Shaped(Shape root) {
+    this.shape = root;
+    this.values = root.allocate();
+  }
+
+  // what a name the instance has no field for resolves to (a method, a member default), or null
+  abstract Object fallback(String name);
+
+  Object found(Object target) { return target; }
+
+  abstract RuntimeError missing(Token name);
+
+  Object get(Token name, PropCache cache) {
+    int entry = cache.find(shape);
+    if (entry < 0) { entry = resolve(name, cache); }
+
+    if (entry >= 0) {
+      int slot = cache.slot(entry);
+      return slot >= 0 ? values[slot] : found(cache.target(entry));
+    }
+
+    int slot = shape.slotOf(name.lexeme);
+    if (slot >= 0) { return values[slot]; }
+
+    Object target = fallback(name.lexeme);
+    if (target != null) { return found(target); }
+
+    throw missing(name);
+  }
+
+  // the fallback a name resolves to, or null when the instance has a field by that name or nothing at all
+  Object unbound(Token name, PropCache cache) {
+    int entry = cache.find(shape);
+    if (entry < 0) { entry = resolve(name, cache); }
+
+    if (entry >= 0) { return cache.slot(entry) >= 0 ? null : cache.target(entry); }
+
+    return shape.slotOf(name.lexeme) >= 0 ? null : fallback(name.lexeme);
+  }
+
+  private int resolve(Token name, PropCache cache) {
+    int slot = shape.slotOf(name.lexeme);
+    return cache.remember(shape, slot, slot < 0 ? fallback(name.lexeme) : null);
+  }
+
+  void set(Token name, Object value, PropCache cache) {
+    int entry = cache.find(shape);
+    if (entry < 0) {
+      int slot = shape.slotOf(name.lexeme);
+      entry = slot >= 0 ? cache.remember(shape, slot, null)
+                        : cache.remember(shape, shape.size, shape.with(name.lexeme));
+    }
+
+    if (entry >= 0) {
+      store(cache.slot(entry), (Shape)cache.target(entry), value);
+      return;
+    }
+
+    int slot = shape.slotOf(name.lexeme);
+    if (slot >= 0) {
+      values[slot] = value;
+    } else {
+      store(shape.size, shape.with(name.lexeme), value);
+    }
+  }
+
+  private void store(int slot, Shape next, Object value) {
+    if (next != null) {
+      shape = next;
+      if (values.length < next.size) { values = Arrays.copyOf(values, next.size); }
+    }
+
+    values[slot] = value;
+  }
+}
@@ -10,6 +10,7 @@ abstract class Statement {
     R visitOrStatement(Or statement);
     R visitWhenStatement(When statement);
     R visitWhileStatement(While statement);
+    R visitAsStatement(As statement);
     R visitPrintStatement(Print statement);
     R visitReturnStatement(Return statement);
     R visitBodyStatement(Body statement);
@@ -51,6 +52,11 @@ abstract class Statement {
     final Token name;
     final List<Token> params;
     final List<Statement> body;
+    int size;
+    int slot = -1;
+    int calls;
+    List<Capture> free;
+    volatile ClosureCompiler.Exec compiled;
   }
 
 
@@ -109,6 +115,29 @@ abstract class Statement {
   }
 
 
+  // As Statement Definition //
+  static class As extends Statement {
+    As(Statement initializer, Express condition, Express increment, Statement body) {
+      this.initializer = initializer;
+      this.condition = condition;
+      this.increment = increment;
+      this.body = body;
+    }
+
+    @Override
+    <R> R accept(Visitor<R> visitor) {
+      return visitor.visitAsStatement(this);
+    }
+
+    final Statement initializer;
+    final Express condition;
+    final Express increment;
+    final Statement body;
+    int size;
+    int slot = -1;
+  }
+
+
   // Print Statement Definition //
   static class Print extends Statement {
     Print(Express expression) {
@@ -138,6 +167,7 @@ abstract class Statement {
 
     final Token keyword;
     final Express value;
+    Statement.Operation tail;
   }
 
 
@@ -153,6 +183,8 @@ abstract class Statement {
     }
 
     final List<Statement> statements;
+    int size;
+    boolean scoped = true;
   }
 
 
@@ -170,6 +202,8 @@ abstract class Statement {
 
     final Token name;
     final List<Statement> body;
+    int slot = -1;
+    List<String> layout;
   }
 
 
@@ -187,6 +221,7 @@ abstract class Statement {
 
     final Token name;
     final List<Express.Variable> elements;
+    int slot = -1;
   }
 
 
@@ -204,6 +239,7 @@ abstract class Statement {
 
     final Token name;
     final List<Statement.Variable> members;
+    int slot = -1;
   }
 
 
@@ -221,6 +257,7 @@ abstract class Statement {
 
     final Token name;
     final Express initial;
+    int slot = -1;
   }
 
 
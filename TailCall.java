@@ -0,0 +1,13 @@
+package dev.alephpt.Dis;
+
+// a '^ op->args.' back into the running operation, looped on by the caller instead of nesting a call
+class TailCall extends Return {
+  final DisOp op;
+  final Object[] args;
+
+  TailCall(DisOp op, Object[] args) {
+    super(null);
+    this.op = op;
+    this.args = args;
+  }
+}
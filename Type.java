@@ -0,0 +1,33 @@
+package dev.alephpt.Dis;
+
+import java.math.BigInteger;
+
+// what the Inference pass proved every value of an expression to be; NUMBER is any number of the tower,
+// and ANY is nothing proven
+enum Type {
+  INT,
+  DOUBLE,
+  NUMBER,
+  STRING,
+  BOOLEAN,
+  ANY;
+
+  static Type of(Object value) {
+    if (value instanceof Integer) { return INT; }
+    if (value instanceof Double) { return DOUBLE; }
+    if (value instanceof Long || value instanceof BigInteger) { return NUMBER; }
+    if (value instanceof String) { return STRING; }
+    if (value instanceof Boolean) { return BOOLEAN; }
+    return ANY;
+  }
+
+  // null stands for no value seen yet, below every type
+  static Type join(Type left, Type right) {
+    if (left == null || left == right) { return right; }
+    if (right == null) { return left; }
+    if (left.isNumber() && right.isNumber()) { return NUMBER; }
+    return ANY;
+  }
+
+  boolean isNumber() { return this == INT || this == DOUBLE || this == NUMBER; }
+}
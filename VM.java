@@ -0,0 +1,871 @@
+package dev.alephpt.Dis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static dev.alephpt.Dis.Field.DOUBLE;
+import static dev.alephpt.Dis.Field.INT;
+import static dev.alephpt.Dis.OpCode.*;
+
+class VM {
+  // for each comparison from EQUAL on, the outcomes of Long.compare it holds for, as bits for less, equal and greater
+  private static final int[] OUTCOMES = { 0b010, 0b101, 0b100, 0b110, 0b001, 0b011 };
+  private static final long NO_INT = Long.MIN_VALUE; // read from an operand holding no int, and out of any int's range
+
+  // Dis calls live in frames on the heap, so recursion is bound by this rather than the JVM thread stack
+  private final int limit = Integer.getInteger("dis.frames", 1000000);
+  private final Interpreter interpreter;
+  private final Field globals;
+  private Object[] stack = new Object[256];
+  private long[] raw = new long[256]; // the bits of the ints and doubles the stack holds tagged INT or DOUBLE
+  private int top = 0;
+  private Frame[] frames = new Frame[64];
+  private int depth = 0;
+
+  private static class Frame {
+    Chunk chunk;
+    DisOp op;
+    Field fields;
+    Field locals; // the operation's own frame, beneath any block scopes
+    int ip;
+    int base;
+  }
+
+  VM(Interpreter interpreter) {
+    this.interpreter = interpreter;
+    this.globals = interpreter.globals;
+    for (int i = 0; i < frames.length; i++) { frames[i] = new Frame(); }
+  }
+
+  void execute(Chunk script, Field fields) {
+    depth = 0;
+    top = 0;
+    pushFrame(script, null, fields, 0);
+    if (script.slots >= 0) {
+      room(1 + script.slots);
+      top = 1 + script.slots;
+    }
+    run(0);
+  }
+
+  // entry point for operations called from outside the dispatch loop (initializers, natives)
+  Object invoke(DisOp op, Field fields) {
+    int exit = depth;
+    int base = top;
+
+    // a chunk keeping its locals on the VM stack takes its arguments out of the Field they came in
+    if (op.chunk.slots < 0) {
+      pushFrame(op.chunk, op, fields, base);
+    } else {
+      pushFrame(op.chunk, op, op.closure, base);
+      room(base + 1 + op.chunk.slots);
+      for (int i = 0; i < op.arity(); i++) { load(fields, i, stack, raw, base + 1 + i); }
+      top = base + 1 + op.chunk.slots;
+    }
+    try {
+      return run(exit);
+    } finally {
+      depth = exit;
+      top = base;
+    }
+  }
+
+  // the stack and its pointer live in locals here, written back to the fields only before anything that can
+  // call into the VM again; ints and doubles sit on it unboxed, tagged as in a Field, and are boxed only where
+  // they leave for the rest of the language
+  private Object run(int exit) {
+    Frame frame = frames[depth - 1];
+    int[] code = frame.chunk.code;
+    Object[] pool = frame.chunk.pool;
+    Field fields = frame.fields;
+    int ip = frame.ip;
+    int fp = frame.base + 1; // where the running call's locals start, when it keeps them on the stack
+
+    room(top + code.length);
+    Object[] stack = this.stack;
+    long[] raw = this.raw;
+    int sp = top;
+
+    for (;;) {
+      int at = ip;
+      switch (code[ip++]) {
+        case CONSTANT: put(stack, raw, sp++, pool[code[ip++]]); break;
+        case NONE:     stack[sp++] = null; break;
+        case TRUE:     stack[sp++] = true; break;
+        case FALSE:    stack[sp++] = false; break;
+        case POP:      sp--; break;
+
+        case GET_LOCAL: {
+          int distance = code[ip++];
+          load(fields.ancestor(distance), code[ip++], stack, raw, sp++);
+          break;
+        }
+        case SET_LOCAL: {
+          int distance = code[ip++];
+          store(fields.ancestor(distance), code[ip++], stack, raw, sp - 1);
+          break;
+        }
+        case GET_SLOT: load(fields, code[ip++], stack, raw, sp++); break;
+        case SET_SLOT: store(fields, code[ip++], stack, raw, sp - 1); break;
+        case GET_GLOBAL: {
+          Token name = (Token)pool[code[ip++]];
+          put(stack, raw, sp++, globals.get(name, code[ip++]));
+          break;
+        }
+        case SET_GLOBAL: {
+          Token name = (Token)pool[code[ip++]];
+          globals.assign(name, code[ip++], box(stack, raw, sp - 1));
+          break;
+        }
+        case GET_PARENT: {
+          Token name = (Token)pool[code[ip++]];
+          int distance = code[ip++];
+          put(stack, raw, sp++, fields.parentGet(name, distance, code[ip++]));
+          break;
+        }
+        case SET_PARENT: {
+          Token name = (Token)pool[code[ip++]];
+          int distance = code[ip++];
+          fields.parentAssign(name, distance, code[ip++], box(stack, raw, sp - 1));
+          break;
+        }
+        case GET_ROOT: {
+          Token name = (Token)pool[code[ip++]];
+          put(stack, raw, sp++, globals.globalGet(name, code[ip++]));
+          break;
+        }
+        case SET_ROOT: {
+          Token name = (Token)pool[code[ip++]];
+          globals.globalAssign(name, code[ip++], box(stack, raw, sp - 1));
+          break;
+        }
+        case DEFINE:       globals.define(((Token)pool[code[ip++]]).lexeme, box(stack, raw, --sp)); break;
+        case STORE: {
+          int local = code[ip++];
+          int value = code[ip++];
+          if (local >= FRAMED) {
+            if (value == STACKED) {
+              copy(stack, raw, --sp, fp + local - FRAMED);
+            } else {
+              operand(value, fields, pool, stack, raw, fp, fp + local - FRAMED);
+            }
+            break;
+          }
+
+          // a constant or a global is already boxed, and goes to a global as it is
+          if (local < 0 && value < STACKED) {
+            globals.assign(frame.chunk.tokens[at], local - GLOBAL, value(value, pool));
+            break;
+          }
+
+          if (value == STACKED) { sp--; } else { operand(value, fields, pool, stack, raw, fp, sp); }
+          if (local < 0) {
+            globals.assign(frame.chunk.tokens[at], local - GLOBAL, box(stack, raw, sp));
+          } else {
+            store(fields.ancestor(local >>> 16), local & 0xFFFF, stack, raw, sp);
+          }
+          break;
+        }
+        case GET_FRAME: copy(stack, raw, fp + code[ip++], sp++); break;
+        case SET_FRAME: copy(stack, raw, sp - 1, fp + code[ip++]); break;
+
+        // steps the counter as STEP does, then runs the comparison after it without dispatching it
+        case LOOP: {
+          int slot = code[ip++];
+          int step = code[ip++];
+          if (slot >= FRAMED) {
+            int i = fp + slot - FRAMED;
+            if (stack[i] == INT && raw[i] != (step > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) {
+              raw[i] += step;
+            } else {
+              count(frame.chunk.tokens[at], step, stack, raw, i);
+            }
+          } else if (fields.slots[slot] == INT && fields.raw[slot] != (step > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) {
+            fields.raw[slot] += step;
+          } else {
+            load(fields, slot, stack, raw, sp);
+            count(frame.chunk.tokens[at], step, stack, raw, sp);
+            store(fields, slot, stack, raw, sp);
+          }
+          at = ip++;
+        }
+        // two ints are worked out where they sit, without pushing the operands read in place; anything else is pushed
+        // and goes to compare or arithmetic. given a target, a comparison is a branch and leaves nothing, and arithmetic
+        // stores its result there
+        case EQUAL:
+        case NOT_EQUAL:
+        case GREATER:
+        case GREAT_EQ:
+        case LESSER:
+        case LESS_EQ:
+        case ADD:
+        case SUBTRACT:
+        case MULTIPLY:
+        case DIVIDE: {
+          int left = code[ip++];
+          int right = code[ip++];
+          int target = code[ip++];
+          int instruction = code[at];
+          int stacked = right != STACKED ? sp : sp - 1;
+          long a = whole(left, fields, pool, stack, raw, fp, left != STACKED ? stacked : stacked - 1);
+          long b = whole(right, fields, pool, stack, raw, fp, stacked);
+
+          if (a != NO_INT && b != NO_INT && (instruction != DIVIDE || b != 0)) {
+            sp = left != STACKED ? stacked : stacked - 1;
+            if (instruction >= ADD) {
+              long value = ints(instruction, a, b);
+              if (target == STACKED) {
+                whole(stack, raw, sp++, value);
+              } else if (target >= FRAMED) {
+                whole(stack, raw, fp + target - FRAMED, value);
+              } else {
+                Field field = fields.ancestor(target >>> 16);
+                int slot = target & 0xFFFF;
+                if (field.slots[slot] == INT && value == (int)value) {
+                  field.raw[slot] = value;
+                } else {
+                  whole(stack, raw, sp, value);
+                  store(field, slot, stack, raw, sp);
+                }
+              }
+              break;
+            }
+
+            boolean result = (OUTCOMES[instruction - EQUAL] >> (Long.compare(a, b) + 1) & 1) != 0;
+            if (target == STACKED) {
+              stack[sp++] = result;
+            } else if (result == target < 0) {
+              ip = target < 0 ? -2 - target : target;
+            }
+            break;
+          }
+
+          // a double on either side, and no equality, is worked out as doubles where the operands sit; a NaN read
+          // goes the long way, which orders it as the tree walker does
+          double x = a != NO_INT ? a : real(left, fields, pool, stack, raw, fp, left != STACKED ? stacked : stacked - 1);
+          double y = b != NO_INT ? b : real(right, fields, pool, stack, raw, fp, stacked);
+          if (instruction >= GREATER && (a == NO_INT || b == NO_INT) && x == x && y == y) {
+            sp = left != STACKED ? stacked : stacked - 1;
+            if (instruction >= ADD) {
+              double value = reals(instruction, x, y);
+              if (target == STACKED) {
+                real(stack, raw, sp++, value);
+              } else if (target >= FRAMED) {
+                real(stack, raw, fp + target - FRAMED, value);
+              } else {
+                Field field = fields.ancestor(target >>> 16);
+                int slot = target & 0xFFFF;
+                if (field.slots[slot] == DOUBLE) {
+                  field.raw[slot] = Double.doubleToRawLongBits(value);
+                } else {
+                  real(stack, raw, sp, value);
+                  store(field, slot, stack, raw, sp);
+                }
+              }
+              break;
+            }
+
+            boolean result = (OUTCOMES[instruction - EQUAL] >> (x < y ? 0 : x == y ? 1 : 2) & 1) != 0;
+            if (target == STACKED) {
+              stack[sp++] = result;
+            } else if (result == target < 0) {
+              ip = target < 0 ? -2 - target : target;
+            }
+            break;
+          }
+
+          if (left != STACKED && right == STACKED) {
+            stack[sp] = stack[sp - 1];
+            raw[sp] = raw[sp - 1];
+            operand(left, fields, pool, stack, raw, fp, sp - 1);
+            sp++;
+          } else {
+            if (left != STACKED) { operand(left, fields, pool, stack, raw, fp, sp++); }
+            if (right != STACKED) { operand(right, fields, pool, stack, raw, fp, sp++); }
+          }
+          sp--;
+
+          if (instruction >= ADD) {
+            arithmetic(frame.chunk.tokens[at], stack, raw, sp);
+            if (target >= FRAMED) {
+              copy(stack, raw, --sp, fp + target - FRAMED);
+            } else if (target != STACKED) {
+              store(fields.ancestor(target >>> 16), target & 0xFFFF, stack, raw, --sp);
+            }
+            break;
+          }
+
+          boolean result = compare(frame.chunk.tokens[at], stack, raw, sp);
+          if (target == STACKED) {
+            stack[sp - 1] = result;
+          } else {
+            sp--;
+            if (result == target < 0) { ip = target < 0 ? -2 - target : target; }
+          }
+          break;
+        }
+        case POWER: sp--; binary(frame.chunk.tokens[at], stack, raw, sp); break;
+        case NOT:   stack[sp - 1] = !Interpreter.isTruthful(stack[sp - 1]); break;
+        case NEGATE: {
+          if (stack[sp - 1] == INT) {
+            whole(stack, raw, sp - 1, -raw[sp - 1]);
+          } else if (stack[sp - 1] == DOUBLE) {
+            real(stack, raw, sp - 1, -real(stack, raw, sp - 1));
+          } else {
+            put(stack, raw, sp - 1, Interpreter.unary(frame.chunk.tokens[at], box(stack, raw, sp - 1)));
+          }
+          break;
+        }
+        case INCREMENT: count(frame.chunk.tokens[at], 1, stack, raw, sp - 1); break;
+        case DECREMENT: count(frame.chunk.tokens[at], -1, stack, raw, sp - 1); break;
+        case STEP: {
+          int local = code[ip++];
+          if (local >= FRAMED) {
+            count(frame.chunk.tokens[at], code[ip++], stack, raw, fp + local - FRAMED);
+            break;
+          }
+
+          Field field = fields.ancestor(local >>> 16);
+          load(field, local & 0xFFFF, stack, raw, sp);
+          count(frame.chunk.tokens[at], code[ip++], stack, raw, sp);
+          store(field, local & 0xFFFF, stack, raw, sp);
+          break;
+        }
+
+        case JUMP: ip = code[ip]; break;
+        case JUMP_IF_FALSE: {
+          int target = code[ip++];
+          if (!Interpreter.isTruthful(stack[--sp])) { ip = target; }
+          break;
+        }
+        case JUMP_IF_TRUE_OR: {
+          int target = code[ip++];
+          if (Interpreter.isTruthful(stack[sp - 1])) { ip = target; }
+          break;
+        }
+        case JUMP_IF_FALSE_OR: {
+          int target = code[ip++];
+          if (!Interpreter.isTruthful(stack[sp - 1])) { ip = target; }
+          break;
+        }
+        case PUSH_SCOPE: fields = new Field(fields, code[ip++]); break;
+        case POP_SCOPE:  fields = fields.foregone; break;
+
+        case CALL:
+        case TAIL_CALL:
+        case INVOKE: {
+          frame.ip = ip + 1;
+          frame.fields = fields;
+          top = sp;
+          frame = call(code[at], code[ip], frame);
+          code = frame.chunk.code;
+          pool = frame.chunk.pool;
+          fields = frame.fields;
+          ip = frame.ip;
+          fp = frame.base + 1;
+          stack = this.stack;
+          raw = this.raw;
+          sp = top;
+          break;
+        }
+        case RETURN:
+        case FALL_THROUGH: {
+          int base = frame.base;
+          if (code[at] != RETURN) {
+            put(stack, raw, base, frame.op.fallThrough(frame.locals));
+          } else if (code[ip] != STACKED) {
+            fetch(code[ip], fields, pool, stack, raw, fp, base);
+          } else {
+            stack[base] = stack[sp - 1];
+            raw[base] = raw[sp - 1];
+          }
+          depth--;
+          if (depth == exit) {
+            top = base;
+            return box(stack, raw, base);
+          }
+
+          sp = base + 1;
+          frame = frames[depth - 1];
+          code = frame.chunk.code;
+          pool = frame.chunk.pool;
+          fields = frame.fields;
+          ip = frame.ip;
+          fp = frame.base + 1;
+          break;
+        }
+
+        case GET_PROPS: {
+          Token name = (Token)pool[code[ip++]];
+          PropCache cache = (PropCache)pool[code[ip++]];
+          put(stack, raw, sp - 1, Interpreter.getProps(box(stack, raw, sp - 1), name, cache));
+          break;
+        }
+        case GET_METHOD: {
+          Token name = (Token)pool[code[ip++]];
+          PropCache cache = (PropCache)pool[code[ip++]];
+          method(name, cache, stack, raw, sp++);
+          break;
+        }
+        case SET_PROPS: {
+          Token name = (Token)pool[code[ip++]];
+          PropCache cache = (PropCache)pool[code[ip++]];
+          setProps(name, cache, stack, raw, --sp);
+          break;
+        }
+        case OPERATION: operation((Chunk)pool[code[ip++]], fields); break;
+        case OBJ: {
+          Statement.Obj object = (Statement.Obj)pool[code[ip++]];
+          int count = code[ip++];
+          sp -= count;
+          obj(object, fields, stack, sp, count);
+          break;
+        }
+        case ENUM: {
+          Statement.Enum enumstmnt = (Statement.Enum)pool[code[ip++]];
+          declare(fields, enumstmnt.slot, enumstmnt.name, new DisEnum(enumstmnt.name.lexeme, DisEnum.namesOf(enumstmnt.elements)));
+          break;
+        }
+        case FORM: {
+          Statement.Form form = (Statement.Form)pool[code[ip++]];
+          int count = code[ip++];
+          sp -= count;
+          form(form, fields, stack, raw, sp, count);
+          break;
+        }
+        case PRINT: System.out.println(Interpreter.asString(box(stack, raw, --sp))); break;
+      }
+    }
+  }
+
+  // makes a call from the running frame with its arguments on top of the stack, returning the frame to carry on in
+  // with top where its values go next
+  private Frame call(int instruction, int argc, Frame frame) {
+    Object[] stack = this.stack;
+    long[] raw = this.raw;
+    int sp = top;
+    int base = sp - argc - 1;
+
+    // GET_METHOD left [method, receiver] for a method found on an instance, [callee, none] otherwise
+    Object receiver = null;
+    if (instruction == INVOKE) {
+      base--;
+      receiver = stack[base + 1];
+      if (receiver == null || argc != ((DisOp)stack[base]).arity()) {
+        receiver = null;
+        System.arraycopy(stack, base + 2, stack, base + 1, argc);
+        System.arraycopy(raw, base + 2, raw, base + 1, argc);
+        sp--;
+      }
+    }
+    int args = receiver != null ? base + 2 : base + 1;
+
+    Object called = stack[base];
+
+    // a self call in return position restarts the running frame; otherwise the RETURN after it hands back the result
+    if (instruction == TAIL_CALL && called instanceof DisOp && frame.op != null
+        && ((DisOp)called).declaration == frame.op.declaration) {
+      DisOp op = (DisOp)called;
+      frame.op = op;
+      frame.ip = 0;
+      if (op.chunk.slots >= 0) {
+        System.arraycopy(stack, args, stack, frame.base + 1, argc);
+        System.arraycopy(raw, args, raw, frame.base + 1, argc);
+        frame.fields = op.closure;
+        frame.locals = op.closure;
+        top = frame.base + 1 + op.chunk.slots;
+        return frame;
+      }
+
+      for (int i = args; i < sp; i++) { stack[i] = box(stack, raw, i); }
+      frame.fields = op.reframe(frame.locals, stack, args, argc);
+      frame.locals = frame.fields;
+      top = frame.base;
+      return frame;
+    }
+
+    if (!(called instanceof DisOp) || ((DisOp)called).chunk == null) {
+      top = sp;
+      Object result = outside(called, receiver, base, args, argc);
+      put(this.stack, this.raw, base, result);
+      top = base + 1;
+      return frame;
+    }
+
+    DisOp op = (DisOp)called;
+    if (argc != op.arity()) {
+      throw new RuntimeArgsError(arguments(args, argc), "Expected " + op.arity() + " arguments.");
+    }
+
+    // a chunk keeping its locals on the VM stack finds its arguments in its first slots already
+    if (op.chunk.slots >= 0 && receiver == null) {
+      top = args + op.chunk.slots;
+      room(top + op.chunk.code.length);
+      return pushFrame(op.chunk, op, op.closure, base);
+    }
+
+    Field fields = op.frame(receiver != null ? receiver : op.self);
+    for (int i = 0; i < argc; i++) { store(fields, i, stack, raw, args + i); }
+
+    room(sp + op.chunk.code.length);
+    top = sp;
+    return pushFrame(op.chunk, op, fields, base);
+  }
+
+  private Frame pushFrame(Chunk chunk, DisOp op, Field fields, int base) {
+    if (depth == limit) { throw overflow(op); }
+
+    if (depth == frames.length) {
+      frames = Arrays.copyOf(frames, depth * 2);
+      for (int i = depth; i < frames.length; i++) { frames[i] = new Frame(); }
+    }
+
+    Frame frame = frames[depth++];
+    frame.chunk = chunk;
+    frame.op = op;
+    frame.fields = fields;
+    frame.locals = fields;
+    frame.ip = 0;
+    frame.base = base;
+    return frame;
+  }
+
+  // reports the Dis call chain, innermost call first, with direct repeats folded together
+  private RuntimeError overflow(DisOp op) {
+    Frame caller = frames[depth - 1];
+    Token site = caller.chunk.tokens[caller.ip - 1];
+    StringBuilder chain = new StringBuilder("Dis stack overflow: more than " + limit + " nested calls.");
+
+    int i = depth - 1;
+    for (int shown = 0; i >= 0 && shown < 20; shown++) {
+      Frame frame = frames[i];
+      int repeats = 1;
+      while (i - repeats >= 0 && frames[i - repeats].op == frame.op
+             && frames[i - repeats].ip == frame.ip) { repeats++; }
+
+      Token call = frame.ip > 0 ? frame.chunk.tokens[frame.ip - 1] : null;
+      chain.append("\n  in ").append(frame.op == null ? "<script>" : frame.op.toString());
+      if (call != null) { chain.append(" [line ").append(call.line).append("]"); }
+      if (repeats > 1) { chain.append(" x ").append(repeats); }
+      i -= repeats;
+    }
+    if (i >= 0) { chain.append("\n  ..."); }
+
+    return new RuntimeError(site != null ? site : op.declaration.name, chain.toString());
+  }
+
+  // a call the dispatch loop hands off, to a native, a class, or an operation the VM has no chunk for
+  private Object outside(Object called, Object receiver, int base, int args, int argc) {
+    if (receiver != null) {
+      DisOp method = (DisOp)called;
+      Field fields = method.frame(receiver);
+      for (int i = 0; i < argc; i++) { fields.slots[i] = box(stack, raw, args + i); }
+      return method.run(interpreter, fields);
+    }
+
+    called = box(stack, raw, base);
+    DisCaller operation = Interpreter.callable(called, argc);
+    if (operation == null) { throw Interpreter.callError(called, arguments(args, argc)); }
+
+    switch (argc) {
+      case 0:  return operation.call0(interpreter);
+      case 1:  return operation.call1(interpreter, box(stack, raw, args));
+      case 2:  return operation.call2(interpreter, box(stack, raw, args), box(stack, raw, args + 1));
+      case 3:  return operation.call3(interpreter, box(stack, raw, args), box(stack, raw, args + 1), box(stack, raw, args + 2));
+      default: return operation.callN(interpreter, arguments(args, argc).toArray());
+    }
+  }
+
+  // leaves [method, receiver] for a method found on an instance, [property, none] otherwise
+  private static void method(Token name, PropCache cache, Object[] stack, long[] raw, int sp) {
+    Object receiver = box(stack, raw, sp - 1);
+    DisOp method = receiver instanceof DisInstance ? ((DisInstance)receiver).method(name, cache) : null;
+    if (method != null) {
+      stack[sp - 1] = method;
+      stack[sp] = receiver;
+    } else {
+      put(stack, raw, sp - 1, Interpreter.getProps(receiver, name, cache));
+      stack[sp] = null;
+    }
+  }
+
+  private static void setProps(Token name, PropCache cache, Object[] stack, long[] raw, int sp) {
+    Object value = box(stack, raw, sp);
+    Object receiver = box(stack, raw, sp - 1);
+    Interpreter.checkProps(receiver, name);
+    Interpreter.setProps(receiver, name, value, cache);
+    put(stack, raw, sp - 1, value);
+  }
+
+  private void operation(Chunk body, Field fields) {
+    Field closure = DisOp.closure(body.declaration, fields, globals);
+    declare(fields, body.declaration.slot, body.declaration.name, new DisOp(body.declaration, closure, false, body));
+  }
+
+  // the method chunks sit on the stack from 'from'
+  private void obj(Statement.Obj object, Field fields, Object[] stack, int from, int count) {
+    Map<String, DisOp> methods = new HashMap<>();
+    for (int i = from; i < from + count; i++) {
+      Chunk method = (Chunk)stack[i];
+      String name = method.declaration.name.lexeme;
+      Field closure = DisOp.closure(method.declaration, fields, globals);
+      methods.put(name, new DisOp(method.declaration, closure, name.equals("pilot"), method));
+    }
+
+    declare(fields, object.slot, object.name, new DisObj(object.name.lexeme, methods, object.layout));
+  }
+
+  // the member values sit on the stack from 'from'
+  private void form(Statement.Form form, Field fields, Object[] stack, long[] raw, int from, int count) {
+    Map<String, Object> members = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      members.put(form.members.get(i).name.lexeme, box(stack, raw, from + i));
+    }
+
+    declare(fields, form.slot, form.name, new DisForm(form.name.lexeme, members));
+  }
+
+  private void declare(Field fields, int slot, Token name, Object value) {
+    if (slot < 0) {
+      globals.define(name.lexeme, value);
+    } else {
+      fields.put(slot, value);
+    }
+  }
+
+  private List<Object> arguments(int from, int argc) {
+    List<Object> args = new ArrayList<>(argc);
+    for (int i = 0; i < argc; i++) { args.add(box(stack, raw, from + i)); }
+    return args;
+  }
+
+  // a frame pushes no more values than its chunk has words, so room for those is made as it is entered
+  private void room(int needed) {
+    if (needed < stack.length) { return; }
+
+    int size = Math.max(needed + 1, stack.length * 2);
+    stack = Arrays.copyOf(stack, size);
+    raw = Arrays.copyOf(raw, size);
+  }
+
+
+  /// UNBOXED VALUES //
+
+  // a value as the rest of the language sees it
+  private static Object box(Object[] stack, long[] raw, int i) {
+    Object value = stack[i];
+    if (value == INT) { return (int)raw[i]; }
+    if (value == DOUBLE) { return Double.longBitsToDouble(raw[i]); }
+    return value;
+  }
+
+  // a value from the rest of the language, unboxed when it is an int or a double
+  private static void put(Object[] stack, long[] raw, int i, Object value) {
+    if (value instanceof Integer) {
+      tag(stack, i, INT);
+      raw[i] = (Integer)value;
+    } else if (value instanceof Double) {
+      tag(stack, i, DOUBLE);
+      raw[i] = Double.doubleToRawLongBits((Double)value);
+    } else {
+      stack[i] = value;
+    }
+  }
+
+  // a whole number that came out of two ints always fits a long; past the int range it is boxed as one
+  private static void whole(Object[] stack, long[] raw, int i, long value) {
+    if (value == (int)value) {
+      tag(stack, i, INT);
+      raw[i] = value;
+    } else {
+      stack[i] = value;
+    }
+  }
+
+  // two ints as longs, which hold any sum, difference or product of them, and divide toward zero as ints do
+  private static long ints(int instruction, long left, long right) {
+    switch (instruction) {
+      case ADD:      return left + right;
+      case SUBTRACT: return left - right;
+      case MULTIPLY: return left * right;
+      default:       return left / right;
+    }
+  }
+
+  private static double reals(int instruction, double left, double right) {
+    switch (instruction) {
+      case ADD:      return left + right;
+      case SUBTRACT: return left - right;
+      case MULTIPLY: return left * right;
+      default:       return left / right;
+    }
+  }
+
+  private static void real(Object[] stack, long[] raw, int i, double value) {
+    tag(stack, i, DOUBLE);
+    raw[i] = Double.doubleToRawLongBits(value);
+  }
+
+  // numeric code mostly finds the same tag already in place, and reading it is cheaper than storing a reference
+  private static void tag(Object[] stack, int i, Object tag) {
+    if (stack[i] != tag) { stack[i] = tag; }
+  }
+
+  // a value from one place on the stack to another, staying unboxed
+  private static void copy(Object[] stack, long[] raw, int from, int to) {
+    tag(stack, to, stack[from]);
+    raw[to] = raw[from];
+  }
+
+  private static double real(Object[] stack, long[] raw, int i) {
+    return stack[i] == INT ? (double)raw[i] : Double.longBitsToDouble(raw[i]);
+  }
+
+  // both operands below sp unboxed, so an int every double holds exactly, or a double
+  private static boolean numbers(Object[] stack, int sp) {
+    Object left = stack[sp - 1], right = stack[sp];
+    return (left == INT || left == DOUBLE) && (right == INT || right == DOUBLE);
+  }
+
+  // a local on the stack, or one of the running Field holding a number, is copied straight in; any other operand
+  // goes through fetch
+  private void operand(int operand, Field fields, Object[] pool, Object[] stack, long[] raw, int fp, int i) {
+    if (operand >= FRAMED) {
+      copy(stack, raw, fp + operand - FRAMED, i);
+      return;
+    }
+    if (operand >= 0 && operand <= 0xFFFF) {
+      Object value = fields.slots[operand];
+      if (value == INT || value == DOUBLE) {
+        tag(stack, i, value);
+        raw[i] = fields.raw[operand];
+        return;
+      }
+    }
+    fetch(operand, fields, pool, stack, raw, fp, i);
+  }
+
+  // the int an operand holds, read where it sits, or NO_INT
+  private long whole(int operand, Field fields, Object[] pool, Object[] stack, long[] raw, int fp, int i) {
+    if (operand == STACKED) { return stack[i] == INT ? raw[i] : NO_INT; }
+    if (operand >= FRAMED) { return stack[fp + operand - FRAMED] == INT ? raw[fp + operand - FRAMED] : NO_INT; }
+    if (operand < 0) {
+      Object constant = value(operand, pool);
+      return constant instanceof Integer ? (Integer)constant : NO_INT;
+    }
+
+    Field field = fields.ancestor(operand >>> 16);
+    int slot = operand & 0xFFFF;
+    return field.slots[slot] == INT ? field.raw[slot] : NO_INT;
+  }
+
+  // the number an operand holds as a double, read where it sits, or NaN for anything else
+  private double real(int operand, Field fields, Object[] pool, Object[] stack, long[] raw, int fp, int i) {
+    if (operand == STACKED) { return number(stack[i], raw[i]); }
+    if (operand >= FRAMED) { return number(stack[fp + operand - FRAMED], raw[fp + operand - FRAMED]); }
+    if (operand < 0) {
+      Object constant = value(operand, pool);
+      return constant instanceof Integer || constant instanceof Double ? ((Number)constant).doubleValue() : Double.NaN;
+    }
+
+    Field field = fields.ancestor(operand >>> 16);
+    int slot = operand & 0xFFFF;
+    Object value = field.slots[slot];
+    return value == INT || value == DOUBLE ? number(value, field.raw[slot]) : Double.NaN;
+  }
+
+  private static double number(Object tag, long bits) {
+    if (tag == DOUBLE) { return Double.longBitsToDouble(bits); }
+    return tag == INT ? (double)bits : Double.NaN;
+  }
+
+  // a constant, or a global, which reads as none until it is defined
+  private Object value(int operand, Object[] pool) {
+    return operand <= GLOBAL + 0xFFFF ? globals.get(operand - GLOBAL) : pool[-2 - operand];
+  }
+
+  private void fetch(int operand, Field fields, Object[] pool, Object[] stack, long[] raw, int fp, int i) {
+    if (operand >= FRAMED) {
+      copy(stack, raw, fp + operand - FRAMED, i);
+    } else if (operand < 0) {
+      put(stack, raw, i, value(operand, pool));
+    } else {
+      load(fields.ancestor(operand >>> 16), operand & 0xFFFF, stack, raw, i);
+    }
+  }
+
+  private static void count(Token operator, int step, Object[] stack, long[] raw, int i) {
+    if (stack[i] == INT) {
+      whole(stack, raw, i, raw[i] + step);
+    } else if (stack[i] == DOUBLE) {
+      real(stack, raw, i, real(stack, raw, i) + step);
+    } else {
+      put(stack, raw, i, Interpreter.count(operator, box(stack, raw, i)));
+    }
+  }
+
+  // ints and doubles are ordered as doubles, which hold every int exactly; anything else, and any equality, as the
+  // tree walker does it
+  private static boolean compare(Token operator, Object[] stack, long[] raw, int sp) {
+    if (operator.type == TokenType.EQEQ || operator.type == TokenType.INEQ || !numbers(stack, sp)) {
+      return (Boolean)Interpreter.binary(operator, box(stack, raw, sp - 1), box(stack, raw, sp));
+    }
+
+    double left = real(stack, raw, sp - 1), right = real(stack, raw, sp);
+    switch (operator.type) {
+      case GREATER:  return left > right;
+      case GREAT_EQ: return left >= right;
+      case LESSER:   return left < right;
+      default:       return left <= right;
+    }
+  }
+
+  // with a double on either side the result is a double; two ints, or anything else, through Interpreter.binary,
+  // as an int divided by zero is
+  private static void arithmetic(Token operator, Object[] stack, long[] raw, int sp) {
+    if (!numbers(stack, sp) || (stack[sp - 1] != DOUBLE && stack[sp] != DOUBLE)) {
+      binary(operator, stack, raw, sp);
+      return;
+    }
+
+    double left = real(stack, raw, sp - 1), right = real(stack, raw, sp);
+    switch (operator.type) {
+      case PLUS:  real(stack, raw, sp - 1, left + right); break;
+      case MINUS: real(stack, raw, sp - 1, left - right); break;
+      case STAR:  real(stack, raw, sp - 1, left * right); break;
+      default:    real(stack, raw, sp - 1, left / right);
+    }
+  }
+
+  // the operands at sp - 1 and sp, through the tree walker's operators, into sp - 1
+  private static void binary(Token operator, Object[] stack, long[] raw, int sp) {
+    put(stack, raw, sp - 1, Interpreter.binary(operator, box(stack, raw, sp - 1), box(stack, raw, sp)));
+  }
+
+  private static void load(Field field, int slot, Object[] stack, long[] raw, int i) {
+    Object value = field.slots[slot];
+    if (value == INT || value == DOUBLE) {
+      tag(stack, i, value);
+      raw[i] = field.raw[slot];
+    } else {
+      put(stack, raw, i, value instanceof Cell ? ((Cell)value).value : value);
+    }
+  }
+
+  // a slot already holding the same kind of number only takes the new bits
+  private static void store(Field field, int slot, Object[] stack, long[] raw, int i) {
+    Object value = stack[i];
+    if (value == field.slots[slot] && (value == INT || value == DOUBLE)) {
+      field.raw[slot] = raw[i];
+    } else if (value == INT) {
+      field.setInt(slot, (int)raw[i]);
+    } else if (value == DOUBLE) {
+      field.setDouble(slot, Double.longBitsToDouble(raw[i]));
+    } else {
+      field.put(slot, value);
+    }
+  }
+}
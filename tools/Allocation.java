@@ -0,0 +1,80 @@
+package dev.alephpt.Dis;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+// bytes the interpreting thread allocates per run of each script under every engine, with 'log' output discarded;
+// the built-in 'loops' script counts and accumulates ints and doubles in a hot operation
+class Allocation {
+  private static final String LOOPS =
+      "op loop<-:\n" +
+      "|\n" +
+      "  def total <- 0.\n" +
+      "  def half <- 0.0.\n" +
+      "  as, def i <- 0.(++) < 1000:\n" +
+      "  |\n" +
+      "    total <- total + i * 3.\n" +
+      "    half <- half + 0.5.\n" +
+      "  ~\n" +
+      "  ^ total.\n" +
+      "~\n" +
+      "as, def run <- 0.(++) < %d: loop->.\n";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: allocation <runs> <calls> [script ...]");
+      System.exit(64);
+    }
+
+    int runs = Integer.parseInt(args[0]);
+    PrintStream out = System.out;
+
+    out.printf("%-28s", "script");
+    for (Interpreter.Engine engine : Interpreter.Engine.values()) { out.printf("%12s", engine); }
+    out.println("   (median KB allocated)");
+
+    report(out, runs, "loops x " + args[1], String.format(LOOPS, Integer.parseInt(args[1])));
+    for (int i = 2; i < args.length; i++) {
+      String source = new String(Files.readAllBytes(Paths.get(args[i])), Charset.defaultCharset());
+      report(out, runs, Paths.get(args[i]).getFileName().toString(), source);
+    }
+  }
+
+  private static void report(PrintStream out, int runs, String name, String source) {
+    out.printf("%-28s", name);
+
+    for (Interpreter.Engine engine : Interpreter.Engine.values()) {
+      long[] bytes = new long[runs];
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+      try {
+        for (int run = 0; run < runs; run++) { bytes[run] = allocated(source, engine); }
+      } finally {
+        System.setOut(out);
+      }
+
+      Arrays.sort(bytes);
+      out.printf("%12.1f", bytes[runs / 2] / 1024.0);
+    }
+    out.println();
+  }
+
+  private static long allocated(String source, Interpreter.Engine engine) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    Interpreter interpreter = new Interpreter();
+    interpreter.useEngine(engine);
+
+    List<Statement> statements = new Parser(new Scanner(source).scanTokens()).parse();
+    new Resolver(interpreter.globals.names).resolve(statements);
+
+    long before = threads.getCurrentThreadAllocatedBytes();
+    interpreter.interpret(statements);
+    return threads.getCurrentThreadAllocatedBytes() - before;
+  }
+}
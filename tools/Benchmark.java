@@ -0,0 +1,62 @@
+package dev.alephpt.Dis;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+// times each script under every execution engine, with 'log' output discarded
+class Benchmark {
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: benchmark <runs> <script> [script ...]");
+      System.exit(64);
+    }
+
+    int runs = Integer.parseInt(args[0]);
+    PrintStream out = System.out;
+
+    out.printf("%-28s", "script");
+    for (Interpreter.Engine engine : Interpreter.Engine.values()) { out.printf("%12s", engine); }
+    out.println("   (median ms)");
+
+    for (int i = 1; i < args.length; i++) {
+      String source = new String(Files.readAllBytes(Paths.get(args[i])), Charset.defaultCharset());
+      out.printf("%-28s", Paths.get(args[i]).getFileName());
+
+      for (Interpreter.Engine engine : Interpreter.Engine.values()) {
+        long[] times = new long[runs];
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+          for (int run = 0; run < runs; run++) { times[run] = time(source, engine); }
+        } finally {
+          System.setOut(out);
+        }
+
+        Arrays.sort(times);
+        out.printf("%12.1f", times[runs / 2] / 1e6);
+      }
+      out.println();
+    }
+  }
+
+  private static long time(String source, Interpreter.Engine engine) {
+    Interpreter interpreter = new Interpreter();
+    interpreter.useEngine(engine);
+
+    List<Statement> statements = new Parser(new Scanner(source).scanTokens()).parse();
+    new Resolver(interpreter.globals.names).resolve(statements);
+    Optimizer optimizer = new Optimizer();
+    if (DisC.optimize) { optimizer.optimize(statements, false); }
+    if (DisC.infer) { new Inference().infer(statements); }
+    if (DisC.optimize && DisC.infer) { optimizer.optimize(statements, true); }
+
+    long start = System.nanoTime();
+    interpreter.interpret(statements);
+    return System.nanoTime() - start;
+  }
+}
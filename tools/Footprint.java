@@ -0,0 +1,63 @@
+package dev.alephpt.Dis;
+
+import java.lang.ref.Reference;
+import java.util.List;
+
+// heap retained per live obj and form instance, measured on a linked chain of <count> instances
+class Footprint {
+  private static final String OBJ =
+      "obj node {\n" +
+      "  op link <- v, rest:\n" +
+      "  |\n" +
+      "    this::value <- v.\n" +
+      "    this::next <- rest.\n" +
+      "    ^ this.\n" +
+      "  ~\n" +
+      "}\n" +
+      "def head <- none.\n" +
+      "as, def i <- 0.(++) < %d:\n" +
+      "  head <- node->::link->i, head.\n";
+
+  private static final String FORM =
+      "form cell {\n" +
+      "  def value <- 0.\n" +
+      "}\n" +
+      "def head <- none.\n" +
+      "as, def i <- 0.(++) < %d:\n" +
+      "|\n" +
+      "  def c <- cell->.\n" +
+      "  c::value <- i.\n" +
+      "  c::next <- head.\n" +
+      "  head <- c.\n" +
+      "~\n";
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.err.println("Usage: footprint <count>");
+      System.exit(64);
+    }
+
+    int count = Integer.parseInt(args[0]);
+    System.out.printf("obj  %8.1f bytes per instance%n", measure(String.format(OBJ, count)) / (double)count);
+    System.out.printf("form %8.1f bytes per instance%n", measure(String.format(FORM, count)) / (double)count);
+  }
+
+  private static long measure(String source) {
+    List<Statement> statements = new Parser(new Scanner(source).scanTokens()).parse();
+
+    long before = used();
+    Interpreter interpreter = new Interpreter();
+    new Resolver(interpreter.globals.names).resolve(statements);
+    interpreter.interpret(statements);
+    long after = used();
+
+    Reference.reachabilityFence(interpreter);
+    return after - before;
+  }
+
+  private static long used() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) { System.gc(); }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
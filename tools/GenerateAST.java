@@ -13,42 +13,48 @@ public class GenerateAST {
     }
     String outputDir = args[0];
      
-    defineAST(outputDir, "Statement", Arrays.asList(
+    // fields after ';' are filled in after parsing, by the Resolver or at runtime
+    defineAST(outputDir, "Statement", null, Arrays.asList(
           "Expression   : Express expression",
-          "Operation    : Token name, List<Token> params, List<Statement> body",
+          "Operation    : Token name, List<Token> params, List<Statement> body ; int size, int slot = -1, int calls, List<Capture> free, volatile ClosureCompiler.Exec compiled",
           "Or           : Express condition, Statement orBranch",
           "When         : Express condition, Statement thenBranch, List<Statement.Or> orBranches, Statement elseBranch",
           "While        : Express condition, Statement body",
+          "As           : Statement initializer, Express condition, Express increment, Statement body ; int size, int slot = -1",
           "Print        : Express expression",
-          "Return       : Token keyword, Express value",
-          "Body         : List<Statement> statements",
-          "Obj          : Token name, List<Statement> body",// List<Statement.Variable> members",
-          "Enum         : Token name, List<Express.Variable> elements",
-          "Form         : Token name, List<Statement.Variable> members",
-          "Variable     : Token name, Express initial"
+          "Return       : Token keyword, Express value ; Statement.Operation tail",
+          "Body         : List<Statement> statements ; int size, boolean scoped = true",
+          "Obj          : Token name, List<Statement> body ; int slot = -1, List<String> layout",// List<Statement.Variable> members",
+          "Enum         : Token name, List<Express.Variable> elements ; int slot = -1",
+          "Form         : Token name, List<Statement.Variable> members ; int slot = -1",
+          "Variable     : Token name, Express initial ; int slot = -1"
           )
     );
     
-    defineAST(outputDir, "Express", Arrays.asList(
-          "Assign         : Token name, Express value",
-          "Count          : Token operator, Express identifier, Token name",
-          "Unary          : Token operator, Express right",
-          "Binary         : Express left, Token operator, Express right",
+    // every expression carries the type the Inference pass proved for it
+    defineAST(outputDir, "Express", "Type type = Type.ANY", Arrays.asList(
+          "Assign         : Token name, Express value ; int depth = -1, int slot = -1",
+          "Count          : Token operator, Express identifier, Token name ; int depth = -1, int slot = -1, Operands operands = Operands.UNSEEN, boolean proven",
+          "Unary          : Token operator, Express right ; Operands operands = Operands.UNSEEN, boolean proven",
+          "Binary         : Express left, Token operator, Express right ; Operands operands = Operands.UNSEEN, boolean proven",
           "Calling        : Express called, List<Express> args",
-          "Self           : Token keyword",
-          "GetProps       : Express object, Token name",
-          "SetProps       : Express object, Token locale, Token name, Express value",
+          "Invoke         : Express object, Token name, List<Express> args ; PropCache cache = new PropCache()",
+          "Self           : Token keyword ; int depth = -1, int slot = -1",
+          "GetProps       : Express object, Token name ; PropCache cache = new PropCache()",
+          "SetProps       : Express object, Token locale, Token name, Express value ; PropCache cache = new PropCache()",
           "Grouping       : Express expression",
           "Literal        : Object value",
           "Logical        : Express left, Token operator, Express right",
-          "Variable       : Token name",
-          "ParentVariable : Token name",
-          "GlobalVariable : Token name"
+          "Variable       : Token name ; int depth = -1, int slot = -1",
+          "ParentVariable : Token name ; int depth = 1, int slot = -1",
+          "GlobalVariable : Token name ; int slot = -1",
+          "ParentAssign   : ParentVariable target, Express value",
+          "GlobalAssign   : Token name, Express value ; int slot = -1"
           )
     );
   }
 
-  private static void defineAST(String outputDir, String baseName, List<String> types) throws IOException {
+  private static void defineAST(String outputDir, String baseName, String baseField, List<String> types) throws IOException {
     String path = outputDir + "/" + baseName + ".java";
     PrintWriter writer = new PrintWriter(path, "UTF-8");
 
@@ -57,6 +63,7 @@ public class GenerateAST {
     writer.println("import java.util.List;");
     writer.println();
     writer.println("abstract class " + baseName + " {");
+    if (baseField != null) { writer.println("  " + baseField + ";"); }
 
     writer.println();
     
@@ -65,8 +72,9 @@ public class GenerateAST {
     // the AST Classes
     for (String type : types) {
       String className = type.split(":")[0].trim();
-      String fields = type.split(":")[1].trim();
-      defineType(writer, baseName, className, fields);
+      String[] fields = type.split(":")[1].split(";");
+      String resolved = fields.length > 1 ? fields[1].trim() : null;
+      defineType(writer, baseName, className, fields[0].trim(), resolved);
     }
 
     // base accept() method
@@ -79,7 +87,7 @@ public class GenerateAST {
     writer.close();
   }
 
-  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList) {
+  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList, String resolvedList) {
     writer.println();
     writer.println();
     writer.println("  // " + className + " " + baseName + " Definition //");
@@ -110,6 +118,13 @@ public class GenerateAST {
       writer.println("    final " + field + ";");
     }
 
+    // resolution fields
+    if (resolvedList != null) {
+      for (String field : resolvedList.split(", ")) {
+        writer.println("    " + field + ";");
+      }
+    }
+
     writer.println("  }");
   }
   